@@ -0,0 +1,76 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.ast.validation.bean;
+
+import com.blackbuild.klum.ast.validation.bean.internal.SharedValidator;
+import jakarta.validation.ValidatorFactory;
+
+/**
+ * Controls the Bean Validation {@link jakarta.validation.Validator} used to validate DSL Objects.
+ *
+ * <p>By default, a {@link ValidatorFactory} of the default provider is created on first use and shared by
+ * all validations. Applications can provide their own factory, for example to customize message
+ * interpolation, and release the default one when shutting down.</p>
+ *
+ * <p>Since every DSL Object of a model is validated on its own, {@code @Valid} does not cascade into DSL Objects
+ * by default. Cascading into other beans is unaffected.</p>
+ *
+ * <pre><code>
+ * BeanValidation.useValidatorFactory(myFactory)
+ * ...
+ * BeanValidation.close()
+ * </code></pre>
+ */
+public final class BeanValidation {
+
+    private BeanValidation() {
+        /* This utility class should not be instantiated */
+    }
+
+    /**
+     * Validates all subsequent DSL Objects with a validator of the given factory. The factory is not closed
+     * by KlumAST.
+     * @param factory the factory to use, or null to return to the default factory
+     */
+    public static void useValidatorFactory(ValidatorFactory factory) {
+        SharedValidator.use(factory);
+    }
+
+    /**
+     * Makes {@code @Valid} on DSL Object properties cascade into them, which validates these objects again
+     * as part of their owner. Violations are then reported for the owner as well as for the object itself.
+     * @param cascade whether to cascade into DSL Objects
+     */
+    public static void cascadeIntoDslObjects(boolean cascade) {
+        SharedValidator.cascadeIntoDslObjects(cascade);
+    }
+
+    /**
+     * Releases the shared validator and closes the default factory, if it was created. A later
+     * validation creates a new default factory.
+     */
+    public static void close() {
+        SharedValidator.close();
+    }
+}
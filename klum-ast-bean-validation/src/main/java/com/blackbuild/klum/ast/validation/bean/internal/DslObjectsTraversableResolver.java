@@ -0,0 +1,121 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.ast.validation.bean.internal;
+
+import com.blackbuild.klum.ast.runtime.KlumModelObject;
+import jakarta.validation.Path;
+import jakarta.validation.TraversableResolver;
+
+import java.lang.annotation.ElementType;
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Prevents Bean Validation from cascading into DSL Objects.
+ *
+ * <p>The validation phase validates every DSL Object of the model on its own, so cascading from an owner into
+ * its DSL Object properties would validate those subtrees again, once per ancestor. Cascading into
+ * other beans is left to the wrapped resolver.</p>
+ */
+final class DslObjectsTraversableResolver implements TraversableResolver {
+
+    private static final ClassValue<Map<String, Boolean>> DSL_PROPERTIES = new ClassValue<>() {
+        @Override
+        protected Map<String, Boolean> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private final TraversableResolver delegate;
+
+    DslObjectsTraversableResolver(TraversableResolver delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public boolean isReachable(Object traversableObject, Path.Node traversableProperty, Class<?> rootBeanType, Path pathToTraversableObject, ElementType elementType) {
+        return delegate.isReachable(traversableObject, traversableProperty, rootBeanType, pathToTraversableObject, elementType);
+    }
+
+    @Override
+    public boolean isCascadable(Object traversableObject, Path.Node traversableProperty, Class<?> rootBeanType, Path pathToTraversableObject, ElementType elementType) {
+        if (traversableObject != null && traversableProperty.getName() != null && holdsDslObjects(traversableObject.getClass(), traversableProperty.getName()))
+            return false;
+        return delegate.isCascadable(traversableObject, traversableProperty, rootBeanType, pathToTraversableObject, elementType);
+    }
+
+    private static boolean holdsDslObjects(Class<?> type, String property) {
+        return DSL_PROPERTIES.get(type).computeIfAbsent(property, name -> holdsDslObjects(propertyType(type, name)));
+    }
+
+    private static Type propertyType(Class<?> type, String property) {
+        String getter = "get" + Character.toUpperCase(property.charAt(0)) + property.substring(1);
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields())
+                if (field.getName().equals(property))
+                    return field.getGenericType();
+            for (Method method : current.getDeclaredMethods())
+                if (method.getParameterCount() == 0 && method.getName().equals(getter))
+                    return method.getGenericReturnType();
+        }
+        return null;
+    }
+
+    private static boolean holdsDslObjects(Type type) {
+        return holdsDslObjects(type, new HashSet<>());
+    }
+
+    private static boolean holdsDslObjects(Type type, Set<TypeVariable<?>> visitedVariables) {
+        if (type instanceof Class<?> clazz)
+            return KlumModelObject.class.isAssignableFrom(clazz)
+                    || clazz.isArray() && holdsDslObjects(clazz.getComponentType(), visitedVariables);
+        if (type instanceof ParameterizedType parameterizedType)
+            return holdsDslObjects(parameterizedType.getRawType(), visitedVariables)
+                    || anyHoldsDslObjects(parameterizedType.getActualTypeArguments(), visitedVariables);
+        if (type instanceof GenericArrayType arrayType)
+            return holdsDslObjects(arrayType.getGenericComponentType(), visitedVariables);
+        if (type instanceof WildcardType wildcardType)
+            return anyHoldsDslObjects(wildcardType.getUpperBounds(), visitedVariables);
+        // recursive bounds like T extends Comparable<T> are only followed once
+        if (type instanceof TypeVariable<?> variable && visitedVariables.add(variable))
+            return anyHoldsDslObjects(variable.getBounds(), visitedVariables);
+        return false;
+    }
+
+    private static boolean anyHoldsDslObjects(Type[] types, Set<TypeVariable<?>> visitedVariables) {
+        for (Type type : types)
+            if (holdsDslObjects(type, visitedVariables))
+                return true;
+        return false;
+    }
+}
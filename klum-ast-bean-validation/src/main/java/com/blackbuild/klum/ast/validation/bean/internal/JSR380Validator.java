@@ -29,35 +29,31 @@ import com.blackbuild.klum.ast.runtime.validation.InstanceValidator;
 import com.blackbuild.klum.ast.runtime.validation.KlumValidationIssue;
 import com.blackbuild.klum.ast.runtime.validation.KlumValidationResult;
 import jakarta.validation.ConstraintViolation;
-import jakarta.validation.Validation;
-import jakarta.validation.Validator;
-import jakarta.validation.ValidatorFactory;
-import org.hibernate.validator.messageinterpolation.ParameterMessageInterpolator;
 
 import java.util.Comparator;
 import java.util.Objects;
 import java.util.Set;
 
 public class JSR380Validator implements InstanceValidator {
-    private KlumValidationResult validationResult;
+
+    @Override
+    public boolean isStateless() {
+        return true;
+    }
 
     @Override
     public void validateInstance(Object instance, KlumValidationResult validationResult) {
-        this.validationResult = validationResult;
-        try (ValidatorFactory factory = Validation.byDefaultProvider()
-                .configure()
-                .messageInterpolator(new ParameterMessageInterpolator())
-                .buildValidatorFactory()) {
-            Validator validator = factory.getValidator();
+        SharedValidator validator = SharedValidator.get();
+        if (!validator.isConstrained(instance.getClass()))
+            return;
 
-            Set<ConstraintViolation<Object>> defaultValidationResults = validator.validate(instance);
-            defaultValidationResults.stream()
-                    .map(this::mapViolationToResult)
-                    .forEach(validationResult::addIssue);
-        }
+        Set<ConstraintViolation<Object>> defaultValidationResults = validator.getValidator().validate(instance);
+        defaultValidationResults.stream()
+                .map(violation -> mapViolationToResult(validationResult, violation))
+                .forEach(validationResult::addIssue);
     }
 
-    private KlumValidationIssue mapViolationToResult(ConstraintViolation<Object> violation) {
+    private KlumValidationIssue mapViolationToResult(KlumValidationResult validationResult, ConstraintViolation<Object> violation) {
         Validate.Level level = violation.getConstraintDescriptor().getPayload()
                 .stream()
                 .map(Level::getLevelForPayload)
@@ -0,0 +1,116 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.ast.validation.bean.internal;
+
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.hibernate.validator.messageinterpolation.ParameterMessageInterpolator;
+
+/**
+ * The Bean Validation {@link Validator} shared by all validated DSL Objects, together with the
+ * per-class knowledge which types carry constraints at all.
+ */
+public final class SharedValidator {
+
+    private static volatile SharedValidator current;
+    private static boolean cascadeIntoDslObjects;
+
+    private final ValidatorFactory factory;
+    private final boolean ownsFactory;
+    private final Validator validator;
+    private final ClassValue<Boolean> constrainedTypes = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return validator.getConstraintsForClass(type).isBeanConstrained();
+        }
+    };
+
+    private SharedValidator(ValidatorFactory factory, boolean ownsFactory) {
+        this.factory = factory;
+        this.ownsFactory = ownsFactory;
+        this.validator = cascadeIntoDslObjects
+                ? factory.getValidator()
+                : factory.usingContext()
+                        .traversableResolver(new DslObjectsTraversableResolver(factory.getTraversableResolver()))
+                        .getValidator();
+    }
+
+    static SharedValidator get() {
+        SharedValidator result = current;
+        if (result != null)
+            return result;
+        synchronized (SharedValidator.class) {
+            if (current == null)
+                current = new SharedValidator(createDefaultFactory(), true);
+            return current;
+        }
+    }
+
+    private static ValidatorFactory createDefaultFactory() {
+        return Validation.byDefaultProvider()
+                .configure()
+                .messageInterpolator(new ParameterMessageInterpolator())
+                .buildValidatorFactory();
+    }
+
+    /**
+     * Replaces the shared validator with one created by the given factory. The factory remains owned by the caller.
+     * @param factory the factory to validate with, or null to return to the lazily created default factory
+     */
+    public static synchronized void use(ValidatorFactory factory) {
+        close();
+        if (factory != null)
+            current = new SharedValidator(factory, false);
+    }
+
+    /**
+     * Controls whether validating an object also validates its DSL Object properties. This is off by default,
+     * since the validation phase validates every DSL Object of the model on its own anyway.
+     * @param cascade whether {@code @Valid} on DSL Object properties cascades into them
+     */
+    public static synchronized void cascadeIntoDslObjects(boolean cascade) {
+        cascadeIntoDslObjects = cascade;
+        SharedValidator previous = current;
+        if (previous != null)
+            current = new SharedValidator(previous.factory, previous.ownsFactory);
+    }
+
+    /** Releases the shared validator. The default factory is closed and created again on the next validation. */
+    public static synchronized void close() {
+        SharedValidator previous = current;
+        current = null;
+        if (previous != null && previous.ownsFactory)
+            previous.factory.close();
+    }
+
+    Validator getValidator() {
+        return validator;
+    }
+
+    /** Returns whether instances of the given type have any constraints, including cascaded ones. */
+    boolean isConstrained(Class<?> type) {
+        return constrainedTypes.get(type);
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.ast.validation.bean
+
+import com.blackbuild.klum.ast.AbstractDSLSpec
+import com.blackbuild.klum.ast.runtime.validation.KlumValidationResult
+import com.blackbuild.klum.ast.validation.bean.internal.JSR380Validator
+import jakarta.validation.Validation
+import jakarta.validation.ValidatorFactory
+import org.hibernate.validator.messageinterpolation.ParameterMessageInterpolator
+import spock.lang.IgnoreIf
+import spock.lang.Tag
+
+/**
+ * Measures Bean Validation of a large model. Run with {@code -Dklum.benchmark=true}.
+ */
+@Tag("benchmark")
+@IgnoreIf(value = { !Boolean.getBoolean('klum.benchmark') }, reason = "Benchmarks only run with -Dklum.benchmark=true")
+class BeanValidationBenchmarkTest extends AbstractDSLSpec {
+
+    static final int OBJECTS = 50_000
+
+    def "shared validator vs. validator factory per object"() {
+        given:
+        createClass '''
+            package pk
+
+            import jakarta.validation.constraints.Min
+
+            @DSL
+            class Root {
+                List<Item> items
+                List<Note> notes
+            }
+
+            @DSL
+            class Item {
+                @Min(0L) int weight
+            }
+
+            @DSL
+            class Note {
+                String text
+            }
+        '''
+        instance = clazz.Create.With {
+            items {
+                (OBJECTS / 2).times { index -> item(weight: index) }
+            }
+            notes {
+                (OBJECTS / 2).times { index -> note(text: "note$index") }
+            }
+        }
+        List<Object> objects = instance.items + instance.notes
+        def validator = new JSR380Validator()
+
+        when:
+        long perObjectFactory = measure(objects) { object -> validateWithOwnFactory(object) }
+        long shared = measure(objects) { object -> validator.validateInstance(object, new KlumValidationResult('bench')) }
+
+        then:
+        println String.format("validator factory per object: %.1f us/object", perObjectFactory / 1000d / objects.size())
+        println String.format("shared validator: %.1f us/object", shared / 1000d / objects.size())
+    }
+
+    private static long measure(List<Object> objects, Closure validation) {
+        long start = System.nanoTime()
+        for (Object object : objects)
+            validation.call(object)
+        return System.nanoTime() - start
+    }
+
+    // the validation path before the validator was shared and unconstrained types were skipped
+    private static void validateWithOwnFactory(Object object) {
+        try (ValidatorFactory factory = Validation.byDefaultProvider()
+                .configure()
+                .messageInterpolator(new ParameterMessageInterpolator())
+                .buildValidatorFactory()) {
+            factory.validator.validate(object)
+        }
+    }
+}
@@ -24,11 +24,15 @@
 package com.blackbuild.klum.ast.runtime.internal.validation.bean
 
 import com.blackbuild.klum.ast.Validate
+import com.blackbuild.klum.ast.validation.bean.BeanValidation
 import com.blackbuild.klum.ast.validation.bean.Level
 import com.blackbuild.klum.ast.runtime.internal.AbstractRuntimeTest
 import com.blackbuild.klum.ast.runtime.validation.KlumValidationException
 import com.blackbuild.klum.ast.runtime.validation.KlumValidationResult
 import com.blackbuild.klum.ast.runtime.internal.validation.SingleObjectValidationHandler
+import jakarta.validation.MessageInterpolator
+import jakarta.validation.Validation
+import org.hibernate.validator.messageinterpolation.ParameterMessageInterpolator
 import spock.lang.Issue
 
 @Issue("258")
@@ -162,6 +166,127 @@ import jakarta.validation.constraints.Min
         result.issues.first().member == "value"
     }
 
+    void "validation uses a configured validator factory"() {
+        given:
+        createInstance('''
+            package pk
+
+            import jakarta.validation.constraints.Min
+
+            @DSL
+            class Foo extends TestObject {
+                @Min(20L)
+                int value
+            }
+        ''')
+        def factory = Validation.byDefaultProvider()
+                .configure()
+                .messageInterpolator(new ParameterMessageInterpolator() {
+                    @Override
+                    String interpolate(String messageTemplate, MessageInterpolator.Context context) {
+                        return "custom: " + super.interpolate(messageTemplate, context)
+                    }
+                })
+                .buildValidatorFactory()
+
+        when:
+        BeanValidation.useValidatorFactory(factory)
+        def result = validate(instance)
+
+        then:
+        result.issues*.message == ["custom: must be greater than or equal to 20"]
+
+        when:
+        createInstance()
+        BeanValidation.useValidatorFactory(null)
+        result = validate(instance)
+
+        then:
+        result.issues*.message == ["must be greater than or equal to 20"]
+
+        cleanup:
+        BeanValidation.close()
+        factory?.close()
+    }
+
+    void "valid does not cascade into DSL Objects by default"() {
+        given:
+        createClass('''
+            package pk
+
+            import jakarta.validation.Valid
+            import jakarta.validation.constraints.Min
+
+            @DSL
+            class Foo extends TestObject {
+                @Valid Bar bar
+                @Valid List<Bar> bars
+            }
+
+            @DSL
+            class Bar extends TestObject {
+                @Min(20L)
+                int value
+            }
+        ''')
+        def bar = newInstanceOf("pk.Bar")
+        createInstanceOf("pk.Foo")
+        instance.bar = bar
+        instance.bars = [bar]
+
+        expect: "violations are only reported for the object itself"
+        validate(instance).issues.empty
+        validate(bar).issues*.member == ["value"]
+
+        when:
+        BeanValidation.cascadeIntoDslObjects(true)
+        createInstanceOf("pk.Foo")
+        instance.bar = bar
+        instance.bars = [bar]
+        def result = validate(instance)
+
+        then:
+        result.issues*.member.toSorted() == ["bar.value", "bars[0].value"]
+
+        cleanup:
+        BeanValidation.cascadeIntoDslObjects(false)
+    }
+
+    void "valid does not cascade into DSL Objects behind wildcards and type variables"() {
+        given:
+        createClass('''
+            package pk
+
+            import jakarta.validation.Valid
+            import jakarta.validation.constraints.Min
+
+            @DSL
+            class Foo extends TestObject {
+                @Valid Holder<Bar> holder
+            }
+
+            class Holder<T extends Bar> {
+                @Valid List<? extends T> items
+                @Valid T single
+            }
+
+            @DSL
+            class Bar extends TestObject {
+                @Min(20L)
+                int value
+            }
+        ''')
+        def bar = newInstanceOf("pk.Bar")
+        def holder = newInstanceOf("pk.Holder")
+        holder.items = [bar]
+        holder.single = bar
+        createInstanceOf("pk.Foo")
+        instance.holder = holder
+
+        expect:
+        validate(instance).issues.empty
+    }
+
     private static void validateX(Object instance) {
         def validator = new SingleObjectValidationHandler(instance)
         validator.execute().throwOn(Validate.Level.ERROR)
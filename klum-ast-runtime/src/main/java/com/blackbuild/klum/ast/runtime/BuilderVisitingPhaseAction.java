@@ -50,6 +50,28 @@ public abstract class BuilderVisitingPhaseAction extends AbstractPhaseAction imp
         BuilderStructureSupport.visit((InternalKlumBuilder<?>) root, this);
     }
 
+    /**
+     * Whether this phase may have anything to do for Builders of the given model type, judged from its schema
+     * alone. Builders of other types are passed over, and the phase is skipped entirely if no Builder of the
+     * current construction needs it. The result must only depend on the type and should be cached.
+     * @param modelType the model type of a Builder
+     * @return true if visiting a Builder of that type may have an effect, the default
+     */
+    public boolean appliesTo(Class<?> modelType) {
+        return true;
+    }
+
+    /**
+     * Whether this phase may act on a member of the given container because of the container's schema, even
+     * if {@link #appliesTo(Class)} is false for the member itself. Phases returning true here must also
+     * return true from {@link #appliesTo(Class)} for such containers.
+     * @param container the Builder containing the visited Builder
+     * @return false by default
+     */
+    protected boolean appliesToMembersOf(InternalKlumBuilder<?> container) {
+        return false;
+    }
+
     @Override
     public Action shouldVisit(@NotNull String path, @NotNull Object element, @Nullable Object container, @Nullable String nameOfFieldInContainer) {
         if (!(element instanceof InternalKlumBuilder))
@@ -59,9 +81,13 @@ public abstract class BuilderVisitingPhaseAction extends AbstractPhaseAction imp
 
     @Override
     public final void visit(@NotNull String path, @NotNull Object element, @Nullable Object container, @Nullable String nameOfFieldInContainer) {
+        InternalKlumBuilder<?> builder = (InternalKlumBuilder<?>) element;
+        if (!appliesTo(builder.getModelType())
+                && !(container instanceof InternalKlumBuilder<?> containerBuilder && appliesToMembersOf(containerBuilder)))
+            return;
         try {
             PhaseDriver.getContext().setInstance(element);
-            doVisit(path, (InternalKlumBuilder<?>) element, container, nameOfFieldInContainer);
+            doVisit(path, builder, container, nameOfFieldInContainer);
         } finally {
             PhaseDriver.getContext().setInstance(null);
         }
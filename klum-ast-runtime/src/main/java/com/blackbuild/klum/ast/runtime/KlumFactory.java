@@ -27,13 +27,18 @@ import com.blackbuild.annodocimal.annotations.InlineJavadocs;
 import com.blackbuild.klum.ast.runtime.internal.DslHelper;
 import com.blackbuild.klum.ast.runtime.internal.FactoryHelper;
 import com.blackbuild.klum.ast.runtime.internal.InternalKlumBuilder;
+import com.blackbuild.klum.ast.runtime.validation.KlumValidationException;
 import groovy.lang.Closure;
 import groovy.lang.DelegatesTo;
 import groovy.lang.Script;
 
 import java.io.File;
 import java.net.URL;
+import java.nio.file.Path;
+import java.util.Collection;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
 
 import static com.blackbuild.klum.ast.runtime.internal.DslHelper.requireDslType;
@@ -366,6 +371,60 @@ public class KlumFactory<T> {
         public T From(String key, String configuration, ClassLoader loader) {
             return FactoryHelper.createFrom(type, key, configuration, loader);
         }
+
+        /**
+         * Creates one model for each of the given URLs. The models are created concurrently on the given
+         * executor, which can be any executor, including one using virtual threads. The key of each model is
+         * derived from the name of its URL, templates active on the calling thread are applied to all models.
+         * <p>
+         * All models are created, even if some of them fail. Validation failures of all models are reported together
+         * in a single {@link KlumValidationException}.
+         * </p>
+         *
+         * @param configurationUrls The URLs to read.
+         * @param executor          The executor to create the models on.
+         * @return The created models by key, ordered by key.
+         */
+        public Map<String, T> FromAll(Collection<URL> configurationUrls, Executor executor) {
+            return FactoryHelper.createAllFrom(type, configurationUrls, executor, null);
+        }
+
+        /**
+         * Creates one model for each of the given URLs, concurrently on the common fork join pool.
+         *
+         * @param configurationUrls The URLs to read.
+         * @return The created models by key, ordered by key.
+         * @see #FromAll(Collection, Executor)
+         */
+        public Map<String, T> FromAll(Collection<URL> configurationUrls) {
+            return FromAll(configurationUrls, ForkJoinPool.commonPool());
+        }
+
+        /**
+         * Creates one model for each file in the given directory whose name matches the given glob pattern,
+         * for example {@code "*.groovy"}. Subdirectories are not searched.
+         *
+         * @param directory The directory containing the configuration files.
+         * @param glob      The glob pattern the file names must match.
+         * @param executor  The executor to create the models on.
+         * @return The created models by key, ordered by key.
+         * @see #FromAll(Collection, Executor)
+         */
+        public Map<String, T> FromDirectory(Path directory, String glob, Executor executor) {
+            return FromAll(FactoryHelper.listFiles(directory, glob), executor);
+        }
+
+        /**
+         * Creates one model for each file in the given directory. Subdirectories are not searched.
+         *
+         * @param directory The directory containing the configuration files.
+         * @param executor  The executor to create the models on.
+         * @return The created models by key, ordered by key.
+         * @see #FromAll(Collection, Executor)
+         */
+        public Map<String, T> FromDirectory(Path directory, Executor executor) {
+            return FromDirectory(directory, "*", executor);
+        }
     }
 
     /**
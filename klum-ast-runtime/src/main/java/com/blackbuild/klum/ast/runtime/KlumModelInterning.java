@@ -0,0 +1,64 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.ast.runtime;
+
+import com.blackbuild.klum.ast.runtime.internal.ValueInterning;
+
+/**
+ * Controls the sharing of equal values between completed DSL Objects.
+ *
+ * <p>Models created from the same templates often contain many identical values, like labels, resource lists or
+ * settings maps. If interning is enabled, Materialization keeps only one instance of each set of equal strings,
+ * collections and maps held by the value fields of a model and shares it between all objects holding it, which can
+ * considerably reduce the heap used by large models. Interning is disabled by default and can be enabled with the
+ * system property {@code klum.interning} or {@link #setEnabled(boolean)}.</p>
+ *
+ * <p>Only strings and collections or maps that are deeply immutable are shared, that is those whose members are
+ * strings, boxed primitives, enum constants or such collections themselves. A collection holding, for example,
+ * dates or mutable lists is never shared. The DSL Objects themselves are not shared either, even if they are equal:
+ * every object keeps its own identity, model path and metadata. Transient fields are never shared.</p>
+ */
+public final class KlumModelInterning {
+
+    private KlumModelInterning() {
+        // static only
+    }
+
+    public static boolean isEnabled() {
+        return ValueInterning.isEnabled();
+    }
+
+    /**
+     * Enables or disables interning for all models materialized afterwards.
+     * @param enabled whether equal values should be shared
+     */
+    public static void setEnabled(boolean enabled) {
+        ValueInterning.setEnabled(enabled);
+    }
+
+    /** Returns the number of values that were replaced by an equal, shared instance so far. */
+    public static long getSharedCount() {
+        return ValueInterning.getSharedCount();
+    }
+}
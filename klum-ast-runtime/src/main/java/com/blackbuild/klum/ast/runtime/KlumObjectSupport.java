@@ -34,7 +34,6 @@ import com.blackbuild.klum.ast.runtime.validation.KlumValidationResult;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Deque;
-import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -197,13 +196,13 @@ public final class KlumObjectSupport<T> {
          */
         public List<Object> getOwnerHierarchy() {
             List<Object> result = new ArrayList<>();
-            Set<Object> seen = Collections.newSetFromMap(new IdentityHashMap<>());
             Object current = object;
             while (DslHelper.isDslObject(current)) {
-                if (!seen.add(current))
-                    throw new KlumSchemaException("Object " + current + " has an owner cycle");
                 result.add(current);
                 current = KlumObjectSupport.of(current).getStructure().getSingleOwner().orElse(null);
+                // the member at half the length moves at half speed and meets the head inside any cycle
+                if (current == result.get(result.size() / 2))
+                    throw new KlumSchemaException("Object " + current + " has an owner cycle");
             }
             return List.copyOf(result);
         }
@@ -0,0 +1,131 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.ast.runtime;
+
+import com.blackbuild.klum.ast.runtime.internal.CompiledScriptCache;
+
+import java.nio.file.Path;
+
+/**
+ * Controls the cache of configuration scripts compiled by the text based convenience factories.
+ *
+ * <p>{@code Create.From(String)}, {@code Create.From(File)}, {@code Create.From(URL)} and the corresponding
+ * template factories compile their text into a script class. Compiled classes are cached by the hash of the text,
+ * the script name and the class loader, so reading an unchanged source again skips compilation. The cache holds
+ * the 256 most recently used scripts by default, which can be changed with the system property
+ * {@code klum.scriptCache.maximumSize} or {@link #setMaximumSize(int)}.</p>
+ *
+ * <p>To avoid compiling the same scripts again after a restart, compiled scripts can additionally be stored in a
+ * directory, configured by the system property {@code klum.scriptCache.directory} or {@link #setDirectory(Path)}.
+ * Stored scripts are only reused if their text, the Groovy version and the schema jar are unchanged.</p>
+ *
+ * <p>Scripts can optionally be compiled statically, see {@link #setStaticCompilation(boolean)}.</p>
+ */
+public final class KlumScriptCache {
+
+    private KlumScriptCache() {
+        // static only
+    }
+
+    /** Returns the number of script creations that reused a compiled script. */
+    public static long getHitCount() {
+        return CompiledScriptCache.getInstance().getHitCount();
+    }
+
+    /** Returns the number of script creations that needed to compile their text. */
+    public static long getMissCount() {
+        return CompiledScriptCache.getInstance().getMissCount();
+    }
+
+    /** Returns the number of currently cached scripts. */
+    public static int size() {
+        return CompiledScriptCache.getInstance().size();
+    }
+
+    public static int getMaximumSize() {
+        return CompiledScriptCache.getInstance().getMaximumSize();
+    }
+
+    /**
+     * Changes the number of cached scripts, evicting the least recently used ones if necessary.
+     * @param maximumSize the new maximum size, 0 disables caching
+     */
+    public static void setMaximumSize(int maximumSize) {
+        CompiledScriptCache.getInstance().setMaximumSize(maximumSize);
+    }
+
+    public static boolean isStaticCompilation() {
+        return CompiledScriptCache.getInstance().isStaticCompilation();
+    }
+
+    /**
+     * Compiles configuration scripts with {@code @CompileStatic}, using the generated {@code Foo_DSL.Builder}
+     * interface of the created model as the type of the script's delegate. DSL calls in the scripts then become
+     * direct method calls, and unknown methods or wrongly typed arguments fail compilation with a
+     * {@link KlumModelException} instead of failing while the script runs. Can also be enabled with the system
+     * property {@code klum.scriptCache.compileStatic}.
+     * <p>
+     * Statically compiled scripts cannot use dynamic features, like binding variables or {@code @Field} declarations.
+     * </p>
+     * @param staticCompilation whether to compile scripts statically
+     */
+    public static void setStaticCompilation(boolean staticCompilation) {
+        CompiledScriptCache.getInstance().setStaticCompilation(staticCompilation);
+    }
+
+    /** Returns the directory compiled scripts are stored in, or null if scripts are not stored. */
+    public static Path getDirectory() {
+        return CompiledScriptCache.getInstance().getDirectory();
+    }
+
+    /**
+     * Stores compiled scripts in the given directory, which may be shared by consecutive runs of the application.
+     * @param directory the directory to store scripts in, or null to disable storing scripts
+     */
+    public static void setDirectory(Path directory) {
+        CompiledScriptCache.getInstance().setDirectory(directory);
+    }
+
+    /**
+     * Drops all scripts compiled from the given text.
+     * @param scriptText the text of the scripts to drop
+     */
+    public static void invalidate(String scriptText) {
+        CompiledScriptCache.getInstance().invalidate(scriptText);
+    }
+
+    /**
+     * Drops all scripts compiled against the given class loader. Cached scripts reference their class loader,
+     * so hosts that discard a class loader should invalidate it.
+     * @param loader the class loader whose scripts to drop
+     */
+    public static void invalidate(ClassLoader loader) {
+        CompiledScriptCache.getInstance().invalidate(loader);
+    }
+
+    /** Drops all cached scripts from memory. The hit and miss counts are not reset. */
+    public static void invalidateAll() {
+        CompiledScriptCache.getInstance().invalidateAll();
+    }
+}
@@ -35,6 +35,15 @@ public interface PhaseAction {
         return getPhase().getNumber();
     }
 
+    /**
+     * Whether a single instance of this action can be shared by all lifecycles. Stateful actions (the default)
+     * are instantiated again for each root lifecycle.
+     * @return true if the action keeps no state between or during executions.
+     */
+    default boolean isStateless() {
+        return false;
+    }
+
     /**
      * Can be used to skip a phase in certain conditions, usually by setting a system property.
      * @return true if the phase should be skipped.
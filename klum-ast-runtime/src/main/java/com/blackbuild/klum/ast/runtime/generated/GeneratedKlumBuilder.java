@@ -51,6 +51,21 @@ public abstract class GeneratedKlumBuilder<M> extends InternalKlumBuilder<M> {
         super.$assignRelationships();
     }
 
+    @Override
+    protected int $klum$slotOf(String fieldName) {
+        return super.$klum$slotOf(fieldName);
+    }
+
+    @Override
+    protected Object $klum$get(int slot) {
+        return super.$klum$get(slot);
+    }
+
+    @Override
+    protected void $klum$set(int slot, Object value) {
+        super.$klum$set(slot, value);
+    }
+
     protected final void $copyFromRecipe(Object template) {
         super.copyFromRecipe(template);
     }
@@ -24,11 +24,19 @@
 package com.blackbuild.klum.ast.runtime.generated;
 
 import com.blackbuild.klum.ast.runtime.KlumModelException;
+import com.blackbuild.klum.ast.runtime.internal.MaterializationSnapshots;
+import com.blackbuild.klum.ast.runtime.internal.OwnedCollections;
+import com.blackbuild.klum.ast.runtime.internal.StructuralHashes;
 import groovy.lang.GroovyObject;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Generated-code linkage for model Materialization and opaque completed-model state.
@@ -41,6 +49,12 @@ import java.util.Arrays;
 public final class GeneratedModelSupport {
 
     private static final GeneratedMaterializationToken MATERIALIZATION_TOKEN = new GeneratedMaterializationToken();
+    private static final ClassValue<ModelAllocator> ALLOCATORS = new ClassValue<>() {
+        @Override
+        protected ModelAllocator computeValue(Class<?> implementationType) {
+            return new ModelAllocator(implementationType);
+        }
+    };
 
     private GeneratedModelSupport() {
     }
@@ -51,11 +65,59 @@ public final class GeneratedModelSupport {
             throw new KlumModelException("DSL Objects can only be constructed by internal materialization");
     }
 
-    /** Snapshots one non-relationship field while a generated model is materialized. */
+    /**
+     * Snapshots one non-relationship field while a generated model is materialized.
+     * Retained for models generated before constructors read their Builder fields directly.
+     */
     public static Object $klum$snapshotField(GeneratedKlumBuilder<?> builder, String fieldName) {
         return builder.$snapshotField(fieldName);
     }
 
+    /** Snapshots a field value whose declared type is neither a collection nor a map. */
+    public static Object $klum$snapshotValue(Object value, Class<?> declaredType) {
+        return MaterializationSnapshots.snapshot(value, declaredType);
+    }
+
+    /** Snapshots a collection-valued field, keeping a mutable copy for transient fields. */
+    public static Object $klum$snapshotCollection(Object value, Class<?> declaredType, boolean mutable) {
+        return MaterializationSnapshots.snapshotCollection(value, declaredType, mutable);
+    }
+
+    /** Snapshots a map-valued field, keeping a mutable copy for transient fields. */
+    public static Object $klum$snapshotMap(Object value, Class<?> declaredType, boolean mutable) {
+        return MaterializationSnapshots.snapshotMap(value, declaredType, mutable);
+    }
+
+    /** Creates the Builder storage of a List field, which its completed model takes over without copying. */
+    public static <E> List<E> $klum$ownedList() {
+        return OwnedCollections.newList();
+    }
+
+    /** Creates the Builder storage of a Set field, which its completed model takes over without copying. */
+    public static <E> Set<E> $klum$ownedSet() {
+        return OwnedCollections.newSet();
+    }
+
+    /** Creates the Builder storage of a Map field, which its completed model takes over without copying. */
+    public static <K, V> Map<K, V> $klum$ownedMap() {
+        return OwnedCollections.newMap();
+    }
+
+    /** Resolves a single relationship value to the completed model of its Builder. */
+    public static Object $klum$completedValue(Object value) {
+        return MaterializationSnapshots.completedValue(value);
+    }
+
+    /** Returns the structural hash code of an unkeyed model, as cached during Materialization. */
+    public static int $klum$structuralHashCode(Object model) {
+        return StructuralHashes.hashCodeOf(model);
+    }
+
+    /** Lets generated {@code equals} reject models whose cached structural hashes differ without comparing fields. */
+    public static boolean $klum$structuralHashesDiffer(Object model, Object other) {
+        return StructuralHashes.differ(model, other);
+    }
+
     /** Creates the opaque state retained by a generated root model. */
     public static GeneratedObjectState $klum$createState(GeneratedKlumBuilder<?> builder, GroovyObject model) {
         return builder.$createCompanion(model);
@@ -63,22 +125,43 @@ public final class GeneratedModelSupport {
 
     /** Allocates a generated model through its synthetic Materialization constructor. */
     public static <M> M $klum$instantiate(GeneratedKlumBuilder<?> builder, Class<? extends M> implementationType) {
-        Constructor<?> constructor = Arrays.stream(implementationType.getDeclaredConstructors())
-                .filter(candidate -> candidate.getParameterCount() == 2)
-                .filter(candidate -> candidate.getParameterTypes()[0].isInstance(builder))
-                .filter(candidate -> candidate.getParameterTypes()[1] == GeneratedMaterializationToken.class)
-                .findFirst()
-                .orElseThrow(() -> new KlumModelException("No internal Builder constructor found for " + implementationType.getName()));
+        ModelAllocator allocator = ALLOCATORS.get(implementationType);
+        if (!allocator.builderType.isInstance(builder))
+            throw new KlumModelException("No internal Builder constructor found for " + implementationType.getName());
         try {
-            if (!constructor.trySetAccessible())
-                throw new KlumModelException("Cannot access internal Builder constructor for " + implementationType.getName());
-            return (M) constructor.newInstance(builder, MATERIALIZATION_TOKEN);
-        } catch (InvocationTargetException exception) {
-            if (exception.getCause() instanceof RuntimeException runtimeException)
-                throw runtimeException;
-            throw new KlumModelException("Could not instantiate internal model implementation " + implementationType.getName(), exception.getCause());
-        } catch (ReflectiveOperationException exception) {
+            return (M) allocator.constructor.invokeExact(builder, MATERIALIZATION_TOKEN);
+        } catch (RuntimeException | Error exception) {
+            throw exception;
+        } catch (Throwable exception) {
             throw new KlumModelException("Could not instantiate internal model implementation " + implementationType.getName(), exception);
         }
     }
+
+    /**
+     * The resolved Materialization constructor of one model implementation, adapted to a uniform
+     * {@code (GeneratedKlumBuilder, GeneratedMaterializationToken)Object} handle.
+     */
+    private static final class ModelAllocator {
+        private static final MethodType ALLOCATOR_TYPE = MethodType.methodType(Object.class, GeneratedKlumBuilder.class, GeneratedMaterializationToken.class);
+
+        private final Class<?> builderType;
+        private final MethodHandle constructor;
+
+        private ModelAllocator(Class<?> implementationType) {
+            Constructor<?> target = Arrays.stream(implementationType.getDeclaredConstructors())
+                    .filter(candidate -> candidate.getParameterCount() == 2)
+                    .filter(candidate -> GeneratedKlumBuilder.class.isAssignableFrom(candidate.getParameterTypes()[0]))
+                    .filter(candidate -> candidate.getParameterTypes()[1] == GeneratedMaterializationToken.class)
+                    .findFirst()
+                    .orElseThrow(() -> new KlumModelException("No internal Builder constructor found for " + implementationType.getName()));
+            if (!target.trySetAccessible())
+                throw new KlumModelException("Cannot access internal Builder constructor for " + implementationType.getName());
+            builderType = target.getParameterTypes()[0];
+            try {
+                constructor = MethodHandles.lookup().unreflectConstructor(target).asType(ALLOCATOR_TYPE);
+            } catch (IllegalAccessException exception) {
+                throw new KlumModelException("Cannot access internal Builder constructor for " + implementationType.getName(), exception);
+            }
+        }
+    }
 }
@@ -0,0 +1,49 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.ast.runtime.generated;
+
+import groovy.lang.Closure;
+import groovy.lang.DelegatesTo;
+
+/**
+ * Linkage for configuration scripts that are compiled statically against the Builder interface of their model.
+ *
+ * <p>This is not a supported handwritten client API. The script compilation moves the body of such a script into
+ * a closure and passes it here together with the script's Builder, so that the static type checker resolves
+ * every DSL call against the Builder interface.</p>
+ */
+@SuppressWarnings("java:S100") // reserved generated-code ABI hooks
+public final class GeneratedScriptSupport {
+
+    private GeneratedScriptSupport() {
+    }
+
+    /** Runs the body of a statically compiled configuration script with the given Builder as delegate. */
+    public static Object $klum$configure(@DelegatesTo.Target Object builder,
+                                         @DelegatesTo(strategy = Closure.DELEGATE_FIRST) Closure<?> body) {
+        body.setDelegate(builder);
+        body.setResolveStrategy(Closure.DELEGATE_FIRST);
+        return body.call();
+    }
+}
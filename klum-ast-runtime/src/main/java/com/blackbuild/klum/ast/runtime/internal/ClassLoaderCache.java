@@ -0,0 +1,114 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.ast.runtime.internal;
+
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.Function;
+
+/**
+ * Caches one value per class loader, usually the result of a {@link java.util.ServiceLoader} discovery.
+ *
+ * <p>Class loaders are referenced weakly and values softly. A value usually references classes, and thereby
+ * the class loader, it was discovered from, so a discarded class loader stays reachable through its value until
+ * the garbage collector clears that soft reference, which it only guarantees before running out of memory.
+ * Hosts that discard class loaders, for example when reloading plugins, should therefore call
+ * {@link #invalidate(ClassLoader)} to release them right away. A {@code null} class loader stands for the system
+ * class loader, as it does for {@link java.util.ServiceLoader}.</p>
+ *
+ * <p>This type is public only because {@code PhaseActionRegistry} and {@code InstanceValidatorRegistry}, which live
+ * in the process and validation packages, keep their per-loader registries in it. It is not supported client
+ * API.</p>
+ *
+ * @param <T> the type of the cached values
+ */
+public final class ClassLoaderCache<T> {
+
+    private final Function<ClassLoader, T> factory;
+    private final Map<ClassLoader, SoftReference<T>> values = new WeakHashMap<>();
+    // most lookups come from the same class loader, which can then be answered without locking
+    private volatile LastLookup<T> lastLookup;
+
+    public ClassLoaderCache(Function<ClassLoader, T> factory) {
+        this.factory = factory;
+    }
+
+    /** Returns the value of the current thread's context class loader. */
+    public T forCurrentThread() {
+        return get(Thread.currentThread().getContextClassLoader());
+    }
+
+    public T get(ClassLoader classLoader) {
+        ClassLoader key = keyOf(classLoader);
+        LastLookup<T> last = lastLookup;
+        if (last != null && last.classLoader.get() == key) {
+            T value = last.value.get();
+            if (value != null)
+                return value;
+        }
+        synchronized (values) {
+            SoftReference<T> reference = values.get(key);
+            T value = reference != null ? reference.get() : null;
+            if (value == null) {
+                value = factory.apply(key);
+                reference = new SoftReference<>(value);
+                values.put(key, reference);
+            }
+            lastLookup = new LastLookup<>(key, reference);
+            return value;
+        }
+    }
+
+    /** Drops the value of the given class loader, so that the next lookup computes it again. */
+    public void invalidate(ClassLoader classLoader) {
+        synchronized (values) {
+            values.remove(keyOf(classLoader));
+            lastLookup = null;
+        }
+    }
+
+    /** Drops the values of all class loaders. */
+    public void invalidateAll() {
+        synchronized (values) {
+            values.clear();
+            lastLookup = null;
+        }
+    }
+
+    private static ClassLoader keyOf(ClassLoader classLoader) {
+        return classLoader != null ? classLoader : ClassLoader.getSystemClassLoader();
+    }
+
+    private static final class LastLookup<T> {
+        private final WeakReference<ClassLoader> classLoader;
+        private final SoftReference<T> value;
+
+        private LastLookup(ClassLoader classLoader, SoftReference<T> value) {
+            this.classLoader = new WeakReference<>(classLoader);
+            this.value = value;
+        }
+    }
+}
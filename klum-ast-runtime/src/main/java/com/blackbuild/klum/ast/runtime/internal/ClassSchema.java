@@ -0,0 +1,239 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.ast.runtime.internal;
+
+import com.blackbuild.klum.ast.DSL;
+import com.blackbuild.klum.ast.FieldType;
+import com.blackbuild.klum.ast.Key;
+import com.blackbuild.klum.ast.Owner;
+import org.codehaus.groovy.reflection.CachedField;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable reflective view of a single class, as needed by the runtime.
+ *
+ * <p>Schemas are created once per class and shared through a {@link ClassValue}, so repeated lookups
+ * of fields, hierarchies, field flags and annotated members do not walk the class hierarchy again.
+ * Hierarchy-derived data is composed from the schema of the superclass.</p>
+ *
+ * <p>This type is public only because the composition traversal and link resolution in {@code layer3} and the
+ * annotation validators in {@code validation} read declared fields and methods through it. It is not supported
+ * client API.</p>
+ */
+public final class ClassSchema {
+
+    private static final ClassValue<ClassSchema> SCHEMAS = new ClassValue<>() {
+        @Override
+        protected ClassSchema computeValue(Class<?> type) {
+            return new ClassSchema(type);
+        }
+    };
+
+    private final Class<?> type;
+    private final List<Class<?>> hierarchy;
+    private final List<Class<?>> dslHierarchy;
+    private final List<Class<?>> rwHierarchy;
+    private final List<Field> declaredFields;
+    private final List<Method> declaredMethods;
+    private final Map<String, FieldSchema> declaredFieldSchemas;
+    private final Map<String, Field> fieldsByName;
+    private final Map<String, CachedField> cachedFieldsByName;
+    private final Map<Class<? extends Annotation>, List<Field>> annotatedFields = new ConcurrentHashMap<>();
+    private final Map<Class<? extends Annotation>, List<Method>> annotatedMethods = new ConcurrentHashMap<>();
+
+    private ClassSchema(Class<?> type) {
+        this.type = type;
+        ClassSchema parent = type.getSuperclass() != null ? of(type.getSuperclass()) : null;
+
+        hierarchy = prepend(type, parent != null ? parent.hierarchy : List.of());
+        dslHierarchy = DslHelper.isDslType(type) ? append(parent != null ? parent.dslHierarchy : List.of(), type) : List.of();
+        rwHierarchy = type.getEnclosingClass() != null ? append(parent != null ? parent.rwHierarchy : List.of(), type) : List.of();
+
+        declaredFields = List.of(type.getDeclaredFields());
+        declaredMethods = List.of(type.getDeclaredMethods());
+
+        Map<String, FieldSchema> fieldSchemas = new HashMap<>();
+        Map<String, Field> fields = new HashMap<>();
+        for (Field field : declaredFields) {
+            fieldSchemas.put(field.getName(), new FieldSchema(field));
+            fields.put(field.getName(), field);
+        }
+        if (parent != null)
+            parent.fieldsByName.forEach(fields::putIfAbsent);
+        declaredFieldSchemas = Collections.unmodifiableMap(fieldSchemas);
+        fieldsByName = Collections.unmodifiableMap(fields);
+
+        Map<String, CachedField> cachedFields = new HashMap<>();
+        fields.forEach((name, field) -> cachedFields.put(name, new CachedField(field)));
+        cachedFieldsByName = Collections.unmodifiableMap(cachedFields);
+    }
+
+    /**
+     * Returns the shared schema of the given class.
+     * @param type the class to describe
+     * @return the schema of the class
+     */
+    public static ClassSchema of(Class<?> type) {
+        return SCHEMAS.get(type);
+    }
+
+    public Class<?> getType() {
+        return type;
+    }
+
+    /** Returns the class and all its superclasses, starting with the class itself. */
+    public List<Class<?>> getHierarchy() {
+        return hierarchy;
+    }
+
+    /** Returns the DSL layers of the class, starting with the topmost DSL ancestor. */
+    public List<Class<?>> getDslHierarchy() {
+        return dslHierarchy;
+    }
+
+    /** Returns the chain of nested (RW or Builder) layers of the class, starting with the topmost one. */
+    public List<Class<?>> getRwHierarchy() {
+        return rwHierarchy;
+    }
+
+    public List<Field> getDeclaredFields() {
+        return declaredFields;
+    }
+
+    public List<Method> getDeclaredMethods() {
+        return declaredMethods;
+    }
+
+    /**
+     * Returns the field with the given name, declared either by this class or by one of its superclasses.
+     * Fields of subclasses hide fields of their superclasses.
+     */
+    public Optional<Field> getField(String name) {
+        return Optional.ofNullable(fieldsByName.get(name));
+    }
+
+    public Optional<CachedField> getCachedField(String name) {
+        return Optional.ofNullable(cachedFieldsByName.get(name));
+    }
+
+    /**
+     * Returns all fields of the DSL or RW hierarchy that carry the given annotation, topmost layer first.
+     */
+    public List<Field> getFieldsAnnotatedWith(Class<? extends Annotation> annotation) {
+        return annotatedFields.computeIfAbsent(annotation, this::collectFieldsAnnotatedWith);
+    }
+
+    /**
+     * Returns all methods of the DSL or RW hierarchy that carry the given annotation, topmost layer first
+     * and ordered by name within each layer.
+     */
+    public List<Method> getMethodsAnnotatedWith(Class<? extends Annotation> annotation) {
+        return annotatedMethods.computeIfAbsent(annotation, this::collectMethodsAnnotatedWith);
+    }
+
+    public Optional<Field> getKeyField() {
+        List<Field> keyFields = getFieldsAnnotatedWith(Key.class);
+        return keyFields.isEmpty() ? Optional.empty() : Optional.of(keyFields.get(0));
+    }
+
+    private List<Class<?>> getDslOrRwHierarchy() {
+        return type.isAnnotationPresent(DSL.class) ? dslHierarchy : rwHierarchy;
+    }
+
+    private List<Field> collectFieldsAnnotatedWith(Class<? extends Annotation> annotation) {
+        List<Field> result = new ArrayList<>();
+        for (Class<?> layer : getDslOrRwHierarchy())
+            for (Field field : of(layer).declaredFields)
+                if (field.isAnnotationPresent(annotation))
+                    result.add(field);
+        return List.copyOf(result);
+    }
+
+    private List<Method> collectMethodsAnnotatedWith(Class<? extends Annotation> annotation) {
+        List<Method> result = new ArrayList<>();
+        for (Class<?> layer : getDslOrRwHierarchy())
+            of(layer).declaredMethods.stream()
+                    .sorted(Comparator.comparing(Method::getName))
+                    .filter(method -> method.isAnnotationPresent(annotation))
+                    .forEach(result::add);
+        return List.copyOf(result);
+    }
+
+    static FieldSchema schemaOf(Field field) {
+        return of(field.getDeclaringClass()).declaredFieldSchemas.get(field.getName());
+    }
+
+    private static List<Class<?>> prepend(Class<?> head, List<Class<?>> tail) {
+        List<Class<?>> result = new ArrayList<>(tail.size() + 1);
+        result.add(head);
+        result.addAll(tail);
+        return List.copyOf(result);
+    }
+
+    private static List<Class<?>> append(List<Class<?>> head, Class<?> tail) {
+        List<Class<?>> result = new ArrayList<>(head.size() + 1);
+        result.addAll(head);
+        result.add(tail);
+        return List.copyOf(result);
+    }
+
+    /**
+     * Schema flags of a single declared field. The relationship flag needs generic type resolution,
+     * which may fail for non-DSL classes, so it is only computed on first request.
+     */
+    static final class FieldSchema {
+        private final Field field;
+        private final FieldType fieldType;
+        private final boolean owner;
+        private volatile Boolean relationship;
+
+        private FieldSchema(Field field) {
+            this.field = field;
+            this.fieldType = DslHelper.computeKlumFieldType(field);
+            this.owner = field.isAnnotationPresent(Owner.class);
+        }
+
+        FieldType getFieldType() {
+            return fieldType;
+        }
+
+        boolean isOwner() {
+            return owner;
+        }
+
+        boolean isRelationship() {
+            Boolean result = relationship;
+            if (result == null) {
+                result = DslHelper.computeIsRelationship(field);
+                relationship = result;
+            }
+            return result;
+        }
+    }
+}
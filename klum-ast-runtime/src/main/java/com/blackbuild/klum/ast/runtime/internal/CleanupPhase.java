@@ -36,6 +36,11 @@ public class CleanupPhase extends ModelVisitingPhaseAction {
         super(DefaultKlumPhase.COMPLETE);
     }
 
+    @Override
+    public boolean isStateless() {
+        return true;
+    }
+
     @Override
     protected void doVisit(@NotNull String path, @NotNull Object element, @Nullable Object container, @Nullable String nameOfFieldInContainer) {
         // Completed models retain no Builder construction state.
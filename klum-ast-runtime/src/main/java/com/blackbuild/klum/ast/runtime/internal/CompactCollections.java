@@ -0,0 +1,479 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.ast.runtime.internal;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * Compact, immutable lists, sets and maps retained by completed DSL Objects.
+ *
+ * <p>Empty values share one instance per kind, single elements and pairs are held in fields, and larger values
+ * in arrays of their exact size. Sets and maps iterate in insertion order. Up to {@value #LINEAR_SCAN_LIMIT}
+ * elements are found by a linear scan, larger ones through an open addressing index of their array positions,
+ * which takes far less memory than the entries of a {@code LinkedHashSet} or {@code LinkedHashMap}.
+ * Unlike {@code List.of()} and its siblings, the collections accept and look up null members.</p>
+ *
+ * <p>All collections are serializable and reject modification with an {@link UnsupportedOperationException}.</p>
+ */
+@SuppressWarnings("unchecked")
+final class CompactCollections {
+
+    static final int LINEAR_SCAN_LIMIT = 8;
+
+    private static final Object[] NO_ELEMENTS = new Object[0];
+
+    private CompactCollections() {
+        // static only
+    }
+
+    /** Returns whether the value is one of the immutable collections or maps created here or by {@link CompactSortedCollections}. */
+    static boolean isCompact(Object value) {
+        Class<?> enclosingClass = value.getClass().getEnclosingClass();
+        return (value instanceof Collection<?> || value instanceof Map<?, ?>)
+                && (enclosingClass == CompactCollections.class || enclosingClass == CompactSortedCollections.class);
+    }
+
+    /**
+     * Returns an immutable list of the given elements.
+     * @param elements the elements, the array is retained and must not be changed afterwards
+     */
+    static <E> List<E> listOf(Object[] elements) {
+        switch (elements.length) {
+            case 0:
+                return (List<E>) EmptyList.INSTANCE;
+            case 1:
+                return new SmallList<>(elements[0], SmallList.ABSENT);
+            case 2:
+                return new SmallList<>(elements[0], elements[1]);
+            default:
+                return new ArrayBackedList<>(elements);
+        }
+    }
+
+    /**
+     * Returns an immutable set of the given elements in the order of their first occurrence. Duplicates are dropped.
+     * @param elements the elements, the array may be reused for the set and must not be changed afterwards
+     */
+    static <E> Set<E> setOf(Object[] elements) {
+        if (elements.length == 0)
+            return (Set<E>) EmptySet.INSTANCE;
+        if (elements.length == 1)
+            return new SingletonSet<>(elements[0]);
+        return new ArraySet<>(elements);
+    }
+
+    /**
+     * Returns an immutable map of the given entries in the order of the arrays.
+     * @param keys the distinct keys, the array is retained and must not be changed afterwards
+     * @param values the values, at the positions of their keys; the array is retained as well
+     */
+    static <K, V> Map<K, V> mapOf(Object[] keys, Object[] values) {
+        if (keys.length == 0)
+            return (Map<K, V>) EmptyMap.INSTANCE;
+        if (keys.length == 1)
+            return new SingletonMap<>(keys[0], values[0]);
+        return new ArrayMap<>(keys, values);
+    }
+
+    private static int hash(Object element) {
+        int hash = element == null ? 0 : element.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Positions of the elements of an array, by their hash, in an open addressing table with linear probing.
+     * Slots hold the position plus one, zero marks a free slot. Arrays small enough for a linear scan get no index.
+     */
+    static final class PositionIndex implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] slots;
+
+        PositionIndex(int size) {
+            slots = new int[Integer.highestOneBit(Math.max(size, 1) * 2 - 1) << 1];
+        }
+
+        int positionOf(Object[] elements, Object element) {
+            int mask = slots.length - 1;
+            for (int slot = hash(element) & mask; slots[slot] != 0; slot = (slot + 1) & mask)
+                if (Objects.equals(elements[slots[slot] - 1], element))
+                    return slots[slot] - 1;
+            return -1;
+        }
+
+        /** Adds the position unless an equal element is indexed already, returns whether it was added. */
+        boolean add(Object[] elements, int position, Object element) {
+            int mask = slots.length - 1;
+            int slot = hash(element) & mask;
+            for (; slots[slot] != 0; slot = (slot + 1) & mask)
+                if (Objects.equals(elements[slots[slot] - 1], element))
+                    return false;
+            slots[slot] = position + 1;
+            return true;
+        }
+
+        /** Returns the number of positions this index can hold without becoming more than half full. */
+        int capacity() {
+            return slots.length / 2;
+        }
+    }
+
+    static int linearPositionOf(Object[] elements, int size, Object element) {
+        for (int i = 0; i < size; i++)
+            if (Objects.equals(elements[i], element))
+                return i;
+        return -1;
+    }
+
+    private abstract static class ArrayIterator<T> implements Iterator<T> {
+        private final int size;
+        private int next;
+
+        ArrayIterator(int size) {
+            this.size = size;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < size;
+        }
+
+        @Override
+        public T next() {
+            if (next >= size)
+                throw new NoSuchElementException();
+            return get(next++);
+        }
+
+        abstract T get(int position);
+    }
+
+    private static final class EmptyList<E> extends AbstractList<E> implements RandomAccess, Serializable {
+        private static final long serialVersionUID = 1L;
+        private static final EmptyList<Object> INSTANCE = new EmptyList<>();
+
+        @Override
+        public E get(int index) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: 0");
+        }
+
+        @Override
+        public int size() {
+            return 0;
+        }
+
+        private Object readResolve() {
+            return INSTANCE;
+        }
+    }
+
+    /** A list of one or two elements. */
+    private static final class SmallList<E> extends AbstractList<E> implements RandomAccess, Serializable {
+        private static final long serialVersionUID = 1L;
+        private static final Object ABSENT = AbsentMarker.INSTANCE;
+
+        private final Object first;
+        private final Object second;
+
+        private SmallList(Object first, Object second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public E get(int index) {
+            if (index == 0)
+                return (E) first;
+            if (index == 1 && second != ABSENT)
+                return (E) second;
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+
+        @Override
+        public int size() {
+            return second == ABSENT ? 1 : 2;
+        }
+    }
+
+    /** Marks the missing second element of a single element list; resolves to the same instance when deserialized. */
+    private enum AbsentMarker {
+        INSTANCE
+    }
+
+    private static final class ArrayBackedList<E> extends AbstractList<E> implements RandomAccess, Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final Object[] elements;
+
+        private ArrayBackedList(Object[] elements) {
+            this.elements = elements;
+        }
+
+        @Override
+        public E get(int index) {
+            return (E) elements[index];
+        }
+
+        @Override
+        public int size() {
+            return elements.length;
+        }
+
+        @Override
+        public Object[] toArray() {
+            return elements.clone();
+        }
+
+        @Override
+        public int indexOf(Object o) {
+            return linearPositionOf(elements, elements.length, o);
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return indexOf(o) >= 0;
+        }
+    }
+
+    private static final class EmptySet<E> extends AbstractSet<E> implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private static final EmptySet<Object> INSTANCE = new EmptySet<>();
+
+        @Override
+        public Iterator<E> iterator() {
+            return (Iterator<E>) EmptyList.INSTANCE.iterator();
+        }
+
+        @Override
+        public int size() {
+            return 0;
+        }
+
+        private Object readResolve() {
+            return INSTANCE;
+        }
+    }
+
+    private static final class SingletonSet<E> extends AbstractSet<E> implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final Object element;
+
+        private SingletonSet(Object element) {
+            this.element = element;
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return new ArrayIterator<>(1) {
+                @Override
+                E get(int position) {
+                    return (E) element;
+                }
+            };
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return Objects.equals(element, o);
+        }
+
+        @Override
+        public int size() {
+            return 1;
+        }
+    }
+
+    /** An insertion ordered set; also used as key set of an {@link ArrayMap}, sharing its keys and index. */
+    private static final class ArraySet<E> extends AbstractSet<E> implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final Object[] elements;
+        private final PositionIndex index;
+
+        private ArraySet(Object[] elements) {
+            int size = 0;
+            PositionIndex positions = elements.length > LINEAR_SCAN_LIMIT ? new PositionIndex(elements.length) : null;
+            for (Object element : elements) {
+                boolean added = positions != null ? positions.add(elements, size, element) : linearPositionOf(elements, size, element) < 0;
+                if (added)
+                    elements[size++] = element;
+            }
+            this.elements = size == elements.length ? elements : Arrays.copyOf(elements, size);
+            this.index = positions;
+        }
+
+        private ArraySet(Object[] elements, PositionIndex index) {
+            this.elements = elements;
+            this.index = index;
+        }
+
+        private int positionOf(Object element) {
+            return index != null ? index.positionOf(elements, element) : linearPositionOf(elements, elements.length, element);
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return positionOf(o) >= 0;
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return new ArrayIterator<>(elements.length) {
+                @Override
+                E get(int position) {
+                    return (E) elements[position];
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return elements.length;
+        }
+
+        @Override
+        public Object[] toArray() {
+            return elements.clone();
+        }
+    }
+
+    private static final class EmptyMap<K, V> extends AbstractMap<K, V> implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private static final EmptyMap<Object, Object> INSTANCE = new EmptyMap<>();
+
+        @Override
+        public Set<Entry<K, V>> entrySet() {
+            return (Set<Entry<K, V>>) (Set<?>) EmptySet.INSTANCE;
+        }
+
+        private Object readResolve() {
+            return INSTANCE;
+        }
+    }
+
+    private static final class SingletonMap<K, V> extends AbstractMap<K, V> implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final Object key;
+        private final Object value;
+
+        private SingletonMap(Object key, Object value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return Objects.equals(this.key, key);
+        }
+
+        @Override
+        public V get(Object key) {
+            return containsKey(key) ? (V) value : null;
+        }
+
+        @Override
+        public Set<Entry<K, V>> entrySet() {
+            return new SingletonSet<>(new SimpleImmutableEntry<>((K) key, (V) value));
+        }
+
+        @Override
+        public int size() {
+            return 1;
+        }
+    }
+
+    private static final class ArrayMap<K, V> extends AbstractMap<K, V> implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final ArraySet<K> keys;
+        private final Object[] values;
+
+        private ArrayMap(Object[] keys, Object[] values) {
+            this.keys = new ArraySet<>(keys);
+            if (this.keys.size() != values.length)
+                throw new IllegalArgumentException("Map keys must be distinct");
+            this.values = values;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return keys.positionOf(key) >= 0;
+        }
+
+        @Override
+        public V get(Object key) {
+            int position = keys.positionOf(key);
+            return position >= 0 ? (V) values[position] : null;
+        }
+
+        @Override
+        public Set<K> keySet() {
+            return new ArraySet<>(keys.elements, keys.index);
+        }
+
+        @Override
+        public Collection<V> values() {
+            return new ArrayBackedList<>(values);
+        }
+
+        @Override
+        public Set<Entry<K, V>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<K, V>> iterator() {
+                    return new ArrayIterator<>(values.length) {
+                        @Override
+                        Entry<K, V> get(int position) {
+                            return new SimpleImmutableEntry<>((K) keys.elements[position], (V) values[position]);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return values.length;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return values.length;
+        }
+    }
+}
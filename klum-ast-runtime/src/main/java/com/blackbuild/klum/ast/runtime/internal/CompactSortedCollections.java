@@ -0,0 +1,549 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.ast.runtime.internal;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Compact, immutable sorted sets and maps retained by completed DSL Objects, the comparator ordered
+ * counterparts of {@link CompactCollections}.
+ *
+ * <p>Elements and keys are kept in arrays of their exact size, sorted by the comparator or by their natural
+ * order, and found by binary search. Range views share the arrays of their origin, descending views copy them.
+ * Empty values in natural order share one instance per kind.</p>
+ */
+@SuppressWarnings({"unchecked", "rawtypes"})
+final class CompactSortedCollections {
+
+    private CompactSortedCollections() {
+        // static only
+    }
+
+    /**
+     * Returns an immutable navigable set of the given elements. Elements that compare as equal to an earlier
+     * element are dropped, like in a {@code TreeSet}.
+     * @param elements the elements in any order, the array is sorted and may be retained
+     * @param comparator the comparator, or null for the natural order
+     */
+    static <E> NavigableSet<E> sortedSetOf(Object[] elements, Comparator<?> comparator) {
+        Arrays.sort(elements, (Comparator) comparator);
+        int size = 0;
+        for (Object element : elements)
+            if (size == 0 || compare(comparator, elements[size - 1], element) != 0)
+                elements[size++] = element;
+        return sortedSetOfSorted(size == elements.length ? elements : Arrays.copyOf(elements, size), comparator);
+    }
+
+    /**
+     * Returns an immutable navigable set of elements that are already sorted and distinct, like the elements
+     * of a {@code TreeSet} with the same comparator, in linear time.
+     * @param elements the sorted elements, the array is retained
+     * @param comparator the comparator the elements are sorted by, or null for the natural order
+     */
+    static <E> NavigableSet<E> sortedSetOfSorted(Object[] elements, Comparator<?> comparator) {
+        if (elements.length == 0 && comparator == null)
+            return (NavigableSet<E>) SortedArraySet.EMPTY;
+        return new SortedArraySet<>(elements, 0, elements.length, comparator);
+    }
+
+    /**
+     * Returns an immutable navigable map of the given entries. For keys comparing as equal, the first key and the
+     * last value are kept, like in a {@code TreeMap}.
+     * @param keys the keys in any order, the array may be retained
+     * @param values the values, at the positions of their keys; the array may be retained as well
+     * @param comparator the comparator, or null for the natural order
+     */
+    static <K, V> NavigableMap<K, V> sortedMapOf(Object[] keys, Object[] values, Comparator<?> comparator) {
+        Integer[] order = new Integer[keys.length];
+        for (int i = 0; i < order.length; i++)
+            order[i] = i;
+        Arrays.sort(order, (left, right) -> compare(comparator, keys[left], keys[right]));
+        Object[] sortedKeys = new Object[keys.length];
+        Object[] sortedValues = new Object[keys.length];
+        int size = 0;
+        for (int position : order) {
+            if (size > 0 && compare(comparator, sortedKeys[size - 1], keys[position]) == 0) {
+                sortedValues[size - 1] = values[position];
+            } else {
+                sortedKeys[size] = keys[position];
+                sortedValues[size++] = values[position];
+            }
+        }
+        if (size < keys.length) {
+            sortedKeys = Arrays.copyOf(sortedKeys, size);
+            sortedValues = Arrays.copyOf(sortedValues, size);
+        }
+        return sortedMapOfSorted(sortedKeys, sortedValues, comparator);
+    }
+
+    /**
+     * Returns an immutable navigable map of entries whose keys are already sorted and distinct, like the keys
+     * of a {@code TreeMap} with the same comparator, in linear time.
+     * @param keys the sorted keys, the array is retained
+     * @param values the values, at the positions of their keys; the array is retained as well
+     * @param comparator the comparator the keys are sorted by, or null for the natural order
+     */
+    static <K, V> NavigableMap<K, V> sortedMapOfSorted(Object[] keys, Object[] values, Comparator<?> comparator) {
+        if (keys.length == 0 && comparator == null)
+            return (NavigableMap<K, V>) SortedArrayMap.EMPTY;
+        return new SortedArrayMap<>(keys, values, 0, keys.length, comparator);
+    }
+
+    static int compare(Comparator comparator, Object left, Object right) {
+        return comparator != null ? comparator.compare(left, right) : ((Comparable) left).compareTo(right);
+    }
+
+    private static Object[] reversed(Object[] array, int from, int to) {
+        Object[] result = new Object[to - from];
+        for (int i = 0; i < result.length; i++)
+            result[i] = array[to - 1 - i];
+        return result;
+    }
+
+    /**
+     * A slice {@code [from, to)} of a sorted array of distinct elements, providing the navigation
+     * shared by sets and maps. All positions are absolute positions in the array.
+     */
+    private static final class SortedSlice implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        final Object[] keys;
+        final int from;
+        final int to;
+        final Comparator comparator;
+
+        SortedSlice(Object[] keys, int from, int to, Comparator<?> comparator) {
+            this.keys = keys;
+            this.from = from;
+            this.to = to;
+            this.comparator = comparator;
+        }
+
+        final int search(Object key) {
+            return Arrays.binarySearch(keys, from, to, key, comparator);
+        }
+
+        final int ceilingPosition(Object key) {
+            int position = search(key);
+            return position >= 0 ? position : -(position + 1);
+        }
+
+        final int higherPosition(Object key) {
+            int position = search(key);
+            return position >= 0 ? position + 1 : -(position + 1);
+        }
+
+        final int floorPosition(Object key) {
+            int position = search(key);
+            return position >= 0 ? position : -(position + 1) - 1;
+        }
+
+        final int lowerPosition(Object key) {
+            int position = search(key);
+            return position >= 0 ? position - 1 : -(position + 1) - 1;
+        }
+
+        final boolean inSlice(int position) {
+            return position >= from && position < to;
+        }
+
+        final int firstPosition() {
+            if (from == to)
+                throw new NoSuchElementException();
+            return from;
+        }
+
+        final int lastPosition() {
+            if (from == to)
+                throw new NoSuchElementException();
+            return to - 1;
+        }
+
+        /** Returns the bounds {@code [start, end)} of a sub range, rejecting inverted ranges. */
+        final int[] range(Object fromKey, boolean fromInclusive, Object toKey, boolean toInclusive) {
+            if (compare(comparator, fromKey, toKey) > 0)
+                throw new IllegalArgumentException("fromKey > toKey");
+            return new int[] {start(fromKey, fromInclusive), end(toKey, toInclusive)};
+        }
+
+        final int start(Object fromKey, boolean inclusive) {
+            return inclusive ? ceilingPosition(fromKey) : higherPosition(fromKey);
+        }
+
+        final int end(Object toKey, boolean inclusive) {
+            return (inclusive ? floorPosition(toKey) : lowerPosition(toKey)) + 1;
+        }
+
+        final Comparator reversedComparator() {
+            return Collections.reverseOrder(comparator);
+        }
+    }
+
+    private static final class SortedArraySet<E> extends AbstractSet<E> implements NavigableSet<E>, Serializable {
+        private static final long serialVersionUID = 1L;
+        private static final SortedArraySet<Object> EMPTY = new SortedArraySet<>(new Object[0], 0, 0, null);
+
+        private final SortedSlice slice;
+
+        private SortedArraySet(Object[] elements, int from, int to, Comparator<?> comparator) {
+            slice = new SortedSlice(elements, from, Math.max(from, to), comparator);
+        }
+
+        private E at(int position) {
+            return slice.inSlice(position) ? (E) slice.keys[position] : null;
+        }
+
+        private NavigableSet<E> view(int start, int end) {
+            return new SortedArraySet<>(slice.keys, start, end, slice.comparator);
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return slice.search(o) >= 0;
+        }
+
+        @Override
+        public int size() {
+            return slice.to - slice.from;
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return new Iterator<>() {
+                private int next = slice.from;
+
+                @Override
+                public boolean hasNext() {
+                    return next < slice.to;
+                }
+
+                @Override
+                public E next() {
+                    if (next >= slice.to)
+                        throw new NoSuchElementException();
+                    return (E) slice.keys[next++];
+                }
+            };
+        }
+
+        @Override
+        public Object[] toArray() {
+            return Arrays.copyOfRange(slice.keys, slice.from, slice.to);
+        }
+
+        @Override
+        public Comparator<? super E> comparator() {
+            return slice.comparator;
+        }
+
+        @Override
+        public E first() {
+            return (E) slice.keys[slice.firstPosition()];
+        }
+
+        @Override
+        public E last() {
+            return (E) slice.keys[slice.lastPosition()];
+        }
+
+        @Override
+        public E lower(E e) {
+            return at(slice.lowerPosition(e));
+        }
+
+        @Override
+        public E floor(E e) {
+            return at(slice.floorPosition(e));
+        }
+
+        @Override
+        public E ceiling(E e) {
+            return at(slice.ceilingPosition(e));
+        }
+
+        @Override
+        public E higher(E e) {
+            return at(slice.higherPosition(e));
+        }
+
+        @Override
+        public E pollFirst() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public E pollLast() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public NavigableSet<E> descendingSet() {
+            return new SortedArraySet<>(reversed(slice.keys, slice.from, slice.to), 0, size(), slice.reversedComparator());
+        }
+
+        @Override
+        public Iterator<E> descendingIterator() {
+            return descendingSet().iterator();
+        }
+
+        @Override
+        public NavigableSet<E> subSet(E fromElement, boolean fromInclusive, E toElement, boolean toInclusive) {
+            int[] range = slice.range(fromElement, fromInclusive, toElement, toInclusive);
+            return view(range[0], range[1]);
+        }
+
+        @Override
+        public NavigableSet<E> headSet(E toElement, boolean inclusive) {
+            return view(slice.from, slice.end(toElement, inclusive));
+        }
+
+        @Override
+        public NavigableSet<E> tailSet(E fromElement, boolean inclusive) {
+            return view(slice.start(fromElement, inclusive), slice.to);
+        }
+
+        @Override
+        public NavigableSet<E> subSet(E fromElement, E toElement) {
+            return subSet(fromElement, true, toElement, false);
+        }
+
+        @Override
+        public NavigableSet<E> headSet(E toElement) {
+            return headSet(toElement, false);
+        }
+
+        @Override
+        public NavigableSet<E> tailSet(E fromElement) {
+            return tailSet(fromElement, true);
+        }
+    }
+
+    private static final class SortedArrayMap<K, V> extends AbstractMap<K, V> implements NavigableMap<K, V>, Serializable {
+        private static final long serialVersionUID = 1L;
+        private static final SortedArrayMap<Object, Object> EMPTY = new SortedArrayMap<>(new Object[0], new Object[0], 0, 0, null);
+
+        private final SortedSlice slice;
+        private final Object[] values;
+
+        private SortedArrayMap(Object[] keys, Object[] values, int from, int to, Comparator<?> comparator) {
+            this.slice = new SortedSlice(keys, from, Math.max(from, to), comparator);
+            this.values = values;
+        }
+
+        private Entry<K, V> entryAt(int position) {
+            return slice.inSlice(position) ? new SimpleImmutableEntry<>((K) slice.keys[position], (V) values[position]) : null;
+        }
+
+        private K keyAt(int position) {
+            return slice.inSlice(position) ? (K) slice.keys[position] : null;
+        }
+
+        private NavigableMap<K, V> view(int start, int end) {
+            return new SortedArrayMap<>(slice.keys, values, start, end, slice.comparator);
+        }
+
+        @Override
+        public int size() {
+            return slice.to - slice.from;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return slice.search(key) >= 0;
+        }
+
+        @Override
+        public V get(Object key) {
+            int position = slice.search(key);
+            return position >= 0 ? (V) values[position] : null;
+        }
+
+        @Override
+        public Set<Entry<K, V>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<K, V>> iterator() {
+                    return new Iterator<>() {
+                        private int next = slice.from;
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < slice.to;
+                        }
+
+                        @Override
+                        public Entry<K, V> next() {
+                            if (next >= slice.to)
+                                throw new NoSuchElementException();
+                            return entryAt(next++);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return SortedArrayMap.this.size();
+                }
+            };
+        }
+
+        @Override
+        public Set<K> keySet() {
+            return navigableKeySet();
+        }
+
+        @Override
+        public NavigableSet<K> navigableKeySet() {
+            return new SortedArraySet<>(slice.keys, slice.from, slice.to, slice.comparator);
+        }
+
+        @Override
+        public NavigableSet<K> descendingKeySet() {
+            return navigableKeySet().descendingSet();
+        }
+
+        @Override
+        public Comparator<? super K> comparator() {
+            return slice.comparator;
+        }
+
+        @Override
+        public K firstKey() {
+            return (K) slice.keys[slice.firstPosition()];
+        }
+
+        @Override
+        public K lastKey() {
+            return (K) slice.keys[slice.lastPosition()];
+        }
+
+        @Override
+        public Entry<K, V> firstEntry() {
+            return size() == 0 ? null : entryAt(slice.from);
+        }
+
+        @Override
+        public Entry<K, V> lastEntry() {
+            return size() == 0 ? null : entryAt(slice.to - 1);
+        }
+
+        @Override
+        public Entry<K, V> lowerEntry(K key) {
+            return entryAt(slice.lowerPosition(key));
+        }
+
+        @Override
+        public K lowerKey(K key) {
+            return keyAt(slice.lowerPosition(key));
+        }
+
+        @Override
+        public Entry<K, V> floorEntry(K key) {
+            return entryAt(slice.floorPosition(key));
+        }
+
+        @Override
+        public K floorKey(K key) {
+            return keyAt(slice.floorPosition(key));
+        }
+
+        @Override
+        public Entry<K, V> ceilingEntry(K key) {
+            return entryAt(slice.ceilingPosition(key));
+        }
+
+        @Override
+        public K ceilingKey(K key) {
+            return keyAt(slice.ceilingPosition(key));
+        }
+
+        @Override
+        public Entry<K, V> higherEntry(K key) {
+            return entryAt(slice.higherPosition(key));
+        }
+
+        @Override
+        public K higherKey(K key) {
+            return keyAt(slice.higherPosition(key));
+        }
+
+        @Override
+        public Entry<K, V> pollFirstEntry() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Entry<K, V> pollLastEntry() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public NavigableMap<K, V> descendingMap() {
+            return new SortedArrayMap<>(reversed(slice.keys, slice.from, slice.to), reversed(values, slice.from, slice.to),
+                    0, size(), slice.reversedComparator());
+        }
+
+        @Override
+        public NavigableMap<K, V> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+            int[] range = slice.range(fromKey, fromInclusive, toKey, toInclusive);
+            return view(range[0], range[1]);
+        }
+
+        @Override
+        public NavigableMap<K, V> headMap(K toKey, boolean inclusive) {
+            return view(slice.from, slice.end(toKey, inclusive));
+        }
+
+        @Override
+        public NavigableMap<K, V> tailMap(K fromKey, boolean inclusive) {
+            return view(slice.start(fromKey, inclusive), slice.to);
+        }
+
+        @Override
+        public NavigableMap<K, V> subMap(K fromKey, K toKey) {
+            return subMap(fromKey, true, toKey, false);
+        }
+
+        @Override
+        public NavigableMap<K, V> headMap(K toKey) {
+            return headMap(toKey, false);
+        }
+
+        @Override
+        public NavigableMap<K, V> tailMap(K fromKey) {
+            return tailMap(fromKey, true);
+        }
+    }
+}
@@ -0,0 +1,249 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.ast.runtime.internal;
+
+import com.blackbuild.klum.ast.runtime.KlumModelException;
+import groovy.lang.Binding;
+import groovy.lang.GroovyClassLoader;
+import groovy.lang.GroovyShell;
+import groovy.transform.CompileStatic;
+import groovy.util.DelegatingScript;
+import org.codehaus.groovy.control.CompilationFailedException;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.customizers.ASTTransformationCustomizer;
+import org.codehaus.groovy.runtime.InvokerHelper;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of the {@link DelegatingScript} classes compiled from configuration text.
+ *
+ * <p>Scripts are keyed by the SHA-256 hash of their text, their name and the class loader they are compiled
+ * against, so reading an unchanged file again reuses its compiled class, while a changed file is compiled anew.
+ * The least recently used script is evicted once the cache is full. Every lookup creates a new script instance,
+ * so cached scripts must not rely on static state.</p>
+ *
+ * <p>The default size is 256 scripts and can be changed with the system property {@value #MAXIMUM_SIZE_PROPERTY}.</p>
+ *
+ * <p>Optionally, compiled scripts are also stored in a directory, given by the system property
+ * {@value #DIRECTORY_PROPERTY} or {@link #setDirectory(Path)}, so that they survive JVM restarts.</p>
+ *
+ * <p>If static compilation is enabled with {@value #STATIC_COMPILATION_PROPERTY} or
+ * {@link #setStaticCompilation(boolean)}, scripts are compiled with {@code @CompileStatic} against the generated
+ * Builder interface of their model, see {@link StaticScriptCustomizer}.</p>
+ *
+ * <p>This type is public only as the backend of {@link com.blackbuild.klum.ast.runtime.KlumScriptCache}, which
+ * exposes its statistics and settings to clients. It is not supported client API itself.</p>
+ */
+public final class CompiledScriptCache {
+
+    public static final String MAXIMUM_SIZE_PROPERTY = "klum.scriptCache.maximumSize";
+    public static final String DIRECTORY_PROPERTY = "klum.scriptCache.directory";
+    public static final String STATIC_COMPILATION_PROPERTY = "klum.scriptCache.compileStatic";
+    private static final int DEFAULT_MAXIMUM_SIZE = 256;
+    private static final CompiledScriptCache INSTANCE = new CompiledScriptCache(
+            Integer.getInteger(MAXIMUM_SIZE_PROPERTY, DEFAULT_MAXIMUM_SIZE), System.getProperty(DIRECTORY_PROPERTY));
+
+    private final Map<Key, Class<? extends DelegatingScript>> scripts = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Class<? extends DelegatingScript>> eldest) {
+            return size() > maximumSize;
+        }
+    };
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private int maximumSize;
+    private volatile ScriptBytecodeStore store;
+    private volatile boolean staticCompilation = Boolean.getBoolean(STATIC_COMPILATION_PROPERTY);
+
+    private CompiledScriptCache(int maximumSize, @Nullable String directory) {
+        this.maximumSize = Math.max(0, maximumSize);
+        if (directory != null && !directory.isEmpty())
+            store = new ScriptBytecodeStore(Paths.get(directory));
+    }
+
+    public static CompiledScriptCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns a new instance of the script compiled from the given text, compiling the text only if no script
+     * with the same text, name and class loader is cached.
+     * @param text the script text
+     * @param name the name of the script class, or null for a generated name
+     * @param modelType the type configured by the script
+     * @param loader the class loader to compile against, or null for the context class loader
+     * @return a new, unconfigured script instance
+     */
+    DelegatingScript newScript(String text, @Nullable String name, Class<?> modelType, @Nullable ClassLoader loader) {
+        ClassLoader parent = loader != null ? loader : Thread.currentThread().getContextClassLoader();
+        Class<?> builderInterface = staticCompilation ? GeneratedBuilderSupport.builderInterfaceFor(modelType) : null;
+        Key key = new Key(parent, name, hash(text), builderInterface);
+        Class<? extends DelegatingScript> scriptType;
+        synchronized (scripts) {
+            scriptType = scripts.get(key);
+        }
+        if (scriptType != null) {
+            hits.increment();
+            return (DelegatingScript) InvokerHelper.createScript(scriptType, new Binding());
+        }
+
+        misses.increment();
+        ScriptBytecodeStore currentStore = store;
+        DelegatingScript script = currentStore != null
+                ? (DelegatingScript) InvokerHelper.createScript(currentStore.loadOrCompile(text, name, modelType, builderInterface, parent), new Binding())
+                : compile(text, name, builderInterface, parent);
+        synchronized (scripts) {
+            scripts.putIfAbsent(key, script.getClass());
+        }
+        return script;
+    }
+
+    private static DelegatingScript compile(String text, @Nullable String name, @Nullable Class<?> builderInterface, ClassLoader parent) {
+        GroovyShell shell = new GroovyShell(new GroovyClassLoader(parent), createCompilerConfiguration(builderInterface));
+        try {
+            return (DelegatingScript) (name != null ? shell.parse(text, name) : shell.parse(text));
+        } catch (CompilationFailedException e) {
+            throw builderInterface != null ? staticCompilationFailed(name, builderInterface, e) : e;
+        }
+    }
+
+    static CompilerConfiguration createCompilerConfiguration(@Nullable Class<?> builderInterface) {
+        CompilerConfiguration compilerConfiguration = new CompilerConfiguration();
+        compilerConfiguration.setScriptBaseClass(DelegatingScript.class.getName());
+        compilerConfiguration.setParameters(true);
+        compilerConfiguration.getOptimizationOptions().put("groovydoc", Boolean.TRUE);
+        if (builderInterface != null)
+            compilerConfiguration.addCompilationCustomizers(
+                    new StaticScriptCustomizer(builderInterface),
+                    new ASTTransformationCustomizer(CompileStatic.class));
+        return compilerConfiguration;
+    }
+
+    static KlumModelException staticCompilationFailed(@Nullable String name, Class<?> builderInterface, CompilationFailedException cause) {
+        return new KlumModelException("Configuration script " + (name != null ? name : "text") + " does not compile statically against "
+                + builderInterface.getName() + ":\n" + cause.getMessage(), cause);
+    }
+
+    private static String hash(String text) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported by this JVM", e);
+        }
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public int size() {
+        synchronized (scripts) {
+            return scripts.size();
+        }
+    }
+
+    public int getMaximumSize() {
+        synchronized (scripts) {
+            return maximumSize;
+        }
+    }
+
+    /**
+     * Changes the number of cached scripts, evicting the least recently used ones if necessary.
+     * @param maximumSize the new maximum size, 0 disables caching
+     */
+    public void setMaximumSize(int maximumSize) {
+        if (maximumSize < 0)
+            throw new IllegalArgumentException("maximumSize must not be negative");
+        synchronized (scripts) {
+            this.maximumSize = maximumSize;
+            while (scripts.size() > maximumSize)
+                scripts.remove(scripts.keySet().iterator().next());
+        }
+    }
+
+    public boolean isStaticCompilation() {
+        return staticCompilation;
+    }
+
+    /**
+     * Compiles scripts created from now on statically against the Builder interface of their model.
+     * @param staticCompilation whether to compile scripts statically
+     */
+    public void setStaticCompilation(boolean staticCompilation) {
+        this.staticCompilation = staticCompilation;
+    }
+
+    public @Nullable Path getDirectory() {
+        ScriptBytecodeStore currentStore = store;
+        return currentStore != null ? currentStore.getDirectory() : null;
+    }
+
+    /**
+     * Stores compiled scripts in the given directory and loads them from there instead of compiling them.
+     * @param directory the directory to store scripts in, or null to disable storing scripts
+     */
+    public void setDirectory(@Nullable Path directory) {
+        store = directory != null ? new ScriptBytecodeStore(directory) : null;
+    }
+
+    /** Drops all scripts compiled from the given text. */
+    public void invalidate(String text) {
+        String hash = hash(text);
+        synchronized (scripts) {
+            scripts.keySet().removeIf(key -> key.hash().equals(hash));
+        }
+    }
+
+    /** Drops all scripts compiled against the given class loader, which would otherwise keep it alive. */
+    public void invalidate(ClassLoader loader) {
+        synchronized (scripts) {
+            scripts.keySet().removeIf(key -> key.loader() == loader);
+        }
+    }
+
+    /** Drops all scripts. */
+    public void invalidateAll() {
+        synchronized (scripts) {
+            scripts.clear();
+        }
+    }
+
+    private record Key(ClassLoader loader, @Nullable String name, String hash, @Nullable Class<?> builderInterface) {
+    }
+}
@@ -111,7 +111,7 @@ public class CopyHandler {
     }
 
     private void copyFromLayer(Class<?> layer) {
-        for (Field field : layer.getDeclaredFields()) {
+        for (Field field : ClassSchema.of(layer).getDeclaredFields()) {
             if ((field.getModifiers() & (ACC_SYNTHETIC | ACC_TRANSIENT | ACC_STATIC)) != 0) continue;
             String name = field.getName();
 
@@ -40,6 +40,7 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Predicate;
 
 import static com.blackbuild.klum.ast.runtime.internal.ClosureHelper.*;
 import static com.blackbuild.klum.ast.runtime.internal.DslHelper.castTo;
@@ -47,10 +48,30 @@ import static java.lang.String.format;
 
 public class DefaultPhase extends BuilderVisitingPhaseAction {
 
+    private static final Predicate<Class<?>> APPLICABLE = PhaseApplicability.perType(type ->
+            PhaseApplicability.declares(type, Default.class)
+                    || PhaseApplicability.isMetaAnnotatedWith(type, DefaultValues.class)
+                    || PhaseApplicability.declaresMetaAnnotatedField(type, DefaultValues.class));
+
     public DefaultPhase() {
         super(DefaultKlumPhase.DEFAULT);
     }
 
+    @Override
+    public boolean isStateless() {
+        return true;
+    }
+
+    @Override
+    public boolean appliesTo(Class<?> modelType) {
+        return APPLICABLE.test(modelType);
+    }
+
+    @Override
+    protected boolean appliesToMembersOf(InternalKlumBuilder<?> container) {
+        return PhaseApplicability.declaresMetaAnnotatedField(container.getModelType(), DefaultValues.class);
+    }
+
     @Override
     protected void doVisit(@NotNull String path, @NotNull InternalKlumBuilder<?> element, @Nullable Object container, @Nullable String nameOfFieldInContainer) {
         setDefaultValuesFromDefaultValuesAnnotationOnOwnerField(element, container, nameOfFieldInContainer);
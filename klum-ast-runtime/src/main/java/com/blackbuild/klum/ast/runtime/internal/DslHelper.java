@@ -29,8 +29,6 @@ import com.blackbuild.klum.ast.runtime.KlumSchemaException;
 
 import com.blackbuild.klum.ast.DSL;
 import com.blackbuild.klum.ast.FieldType;
-import com.blackbuild.klum.ast.Key;
-import com.blackbuild.klum.ast.Owner;
 import com.blackbuild.klum.ast.runtime.KlumModelObject;
 import com.blackbuild.klum.ast.layer3.LinkTo;
 import groovy.lang.*;
@@ -75,12 +73,7 @@ public class DslHelper {
     }
 
     public static List<Class<?>> getDslHierarchyOf(Class<?> type) {
-        List<Class<?>> result = new ArrayList<>();
-        while (isDslType(type)) {
-            result.add(0, type);
-            type = type.getSuperclass();
-        }
-        return result;
+        return ClassSchema.of(type).getDslHierarchy();
     }
 
     public static <T> KlumFactory<T> getFactoryOf(Class<T> type) {
@@ -88,12 +81,7 @@ public class DslHelper {
     }
 
     public static List<Class<?>> getHierarchyOf(Class<?> type) {
-        List<Class<?>> result = new ArrayList<>();
-        while (type != null) {
-            result.add(type);
-            type = type.getSuperclass();
-        }
-        return result;
+        return ClassSchema.of(type).getHierarchy();
     }
 
     public static Type getElementTypeOfField(Class<?> type, String name) {
@@ -134,19 +122,11 @@ public class DslHelper {
     }
 
     public static Optional<Field> getField(Class<?> type, String name) {
-        return getHierarchyOf(type).stream()
-                .map(layer -> getFieldOfHierarchyLayer(layer, name))
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .findFirst();
+        return ClassSchema.of(type).getField(name);
     }
 
     public static Optional<CachedField> getCachedField(Class<?> type, String name) {
-        return getHierarchyOf(type).stream()
-                .map(layer -> getCachedFieldOfHierarchyLayer(layer, name))
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .findFirst();
+        return ClassSchema.of(type).getCachedField(name);
     }
 
     public static <T> T getFieldValue(Object container, String name) {
@@ -155,7 +135,7 @@ public class DslHelper {
                 .orElse(null);
     }
 
-    static Object getFieldValue(Object container, Field field) {
+    public static Object getFieldValue(Object container, Field field) {
         try {
             if (!field.trySetAccessible())
                 throw new KlumModelException("Cannot access field " + field);
@@ -178,6 +158,10 @@ public class DslHelper {
     }
 
     public static FieldType getKlumFieldType(Field field) {
+        return ClassSchema.schemaOf(field).getFieldType();
+    }
+
+    static FieldType computeKlumFieldType(Field field) {
         com.blackbuild.klum.ast.Field fieldAnnotation = field.getAnnotation(com.blackbuild.klum.ast.Field.class);
         if (fieldAnnotation != null && fieldAnnotation.value() != FieldType.DEFAULT)
             return fieldAnnotation.value();
@@ -209,33 +193,6 @@ public class DslHelper {
                 .findFirst();
     }
 
-    private static Optional<Field> getFieldOfHierarchyLayer(Class<?> layer, String name) {
-        return getCachedFieldOfHierarchyLayer(layer, name).map(DslHelper::getRealField);
-    }
-
-    private static Optional<CachedField> getCachedFieldOfHierarchyLayer(Class<?> layer, String name) {
-        MetaProperty metaProperty = InvokerHelper.getMetaClass(layer).getMetaProperty(name);
-        if (metaProperty instanceof MetaBeanProperty metaBeanProperty) {
-            CachedField cachedField = metaBeanProperty.getField();
-            if (cachedField != null)
-                return Optional.of(cachedField);
-        }
-
-        // Generated Builder relationship properties have model- and Builder-typed setter
-        // overloads. Groovy consequently exposes them as a MetaBeanProperty without an
-        // attached field, even though the generated field is present.
-        try {
-            return Optional.of(new CachedField(layer.getDeclaredField(name)));
-        } catch (NoSuchFieldException ignored) {
-            return Optional.empty();
-        }
-    }
-
-    // groovy 3 makes Field.field private, so we need a workaround
-    private static Field getRealField(CachedField cachedField) {
-        return cachedField != null ? (Field) InvokerHelper.getAttribute(cachedField, "field") : null;
-    }
-
     private static Optional<Method> getMethodOfHierarchyLayer(Class<?> layer, String name, Class<?>[] args) {
         try {
             return Optional.of(layer.getMethod(name,args));
@@ -245,7 +202,7 @@ public class DslHelper {
     }
 
     public static Optional<Field> getKeyField(Class<?> type) {
-        return getFieldsAnnotatedWith(type, Key.class).findFirst();
+        return ClassSchema.of(type).getKeyField();
     }
 
     public static boolean isKeyed(Class<?> type) {
@@ -265,13 +222,7 @@ public class DslHelper {
     }
 
     public static List<Class<?>> getRwHierarchyOf(Class<?> rwType) {
-        List<Class<?>> result = new ArrayList<>();
-        while (rwType.getEnclosingClass() != null) {
-            result.add(rwType);
-            rwType = rwType.getSuperclass();
-        }
-        Collections.reverse(result);
-        return result;
+        return ClassSchema.of(rwType).getRwHierarchy();
     }
 
     public static boolean isInstantiable(Class<?> type) {
@@ -279,26 +230,11 @@ public class DslHelper {
     }
 
     public static Stream<Method> getMethodsAnnotatedWith(Class<?> type, Class<? extends Annotation> annotation) {
-
-        return getDslOrRwHierarchyOf(type)
-                .stream()
-                .map(Class::getDeclaredMethods)
-                .flatMap(array -> Arrays.stream(array).sorted(Comparator.comparing(Method::getName)))
-                .filter(method -> method.isAnnotationPresent(annotation));
-    }
-
-    @NotNull
-    private static List<Class<?>> getDslOrRwHierarchyOf(Class<?> type) {
-        return type.isAnnotationPresent(DSL.class) ? getDslHierarchyOf(type) : getRwHierarchyOf(type);
+        return ClassSchema.of(type).getMethodsAnnotatedWith(annotation).stream();
     }
 
     public static Stream<Field> getFieldsAnnotatedWith(Class<?> type, Class<? extends Annotation> annotation) {
-
-        return getDslOrRwHierarchyOf(type)
-                .stream()
-                .map(Class::getDeclaredFields)
-                .flatMap(Arrays::stream)
-                .filter(field -> field.isAnnotationPresent(annotation));
+        return ClassSchema.of(type).getFieldsAnnotatedWith(annotation).stream();
     }
 
     public static <T> Optional<Method> getVirtualSetter(Class<?> rwType, String methodName, Class<T> type) {
@@ -379,7 +315,7 @@ public class DslHelper {
     }
 
     public static boolean isOwner(@NotNull Field field) {
-        return field.isAnnotationPresent(Owner.class);
+        return ClassSchema.schemaOf(field).isOwner();
     }
 
     public static boolean isLink(@NotNull Field field) {
@@ -392,6 +328,10 @@ public class DslHelper {
 
     /** Returns whether a schema field represents a direct or collection-valued DSL relationship. */
     public static boolean isRelationship(@NotNull Field field) {
+        return ClassSchema.schemaOf(field).isRelationship();
+    }
+
+    static boolean computeIsRelationship(Field field) {
         Class<?> valueType = field.getType();
         try {
             if (Collection.class.isAssignableFrom(field.getType()) || Map.class.isAssignableFrom(field.getType()))
@@ -31,10 +31,10 @@ import com.blackbuild.klum.ast.PostApply;
 import com.blackbuild.klum.ast.PostCreate;
 import com.blackbuild.klum.ast.runtime.internal.process.BreadcrumbCollector;
 import com.blackbuild.klum.ast.runtime.internal.process.PhaseDriver;
+import com.blackbuild.klum.ast.runtime.validation.KlumValidationException;
 import groovy.lang.*;
 import groovy.transform.Undefined;
 import groovy.util.DelegatingScript;
-import org.codehaus.groovy.control.CompilerConfiguration;
 import org.codehaus.groovy.runtime.InvokerHelper;
 import org.codehaus.groovy.runtime.ResourceGroovyMethods;
 import org.jetbrains.annotations.NotNull;
@@ -46,11 +46,20 @@ import java.io.InputStream;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.net.URL;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 /**
  * Helper methods fro use in convenience factories. This will eventually take a lot of code from
@@ -397,19 +406,7 @@ public class FactoryHelper extends GroovyObjectSupport {
     }
 
     private static <T> T doCreateFromText(Class<T> type, @Nullable String name, String text, @Nullable ClassLoader loader) {
-        GroovyShell shell = createGroovyShell(loader);
-        Script parse = name != null ? shell.parse(text, name) : shell.parse(text);
-        return createFromDelegatingScript(type, name, (DelegatingScript) parse);
-    }
-
-    @NotNull
-    private static GroovyShell createGroovyShell(@Nullable ClassLoader loader) {
-        GroovyClassLoader gLoader = new GroovyClassLoader(loader != null ? loader : Thread.currentThread().getContextClassLoader());
-        CompilerConfiguration compilerConfiguration = new CompilerConfiguration();
-        compilerConfiguration.setScriptBaseClass(DelegatingScript.class.getName());
-        compilerConfiguration.setParameters(true);
-        compilerConfiguration.getOptimizationOptions().put("groovydoc", Boolean.TRUE);
-        return new GroovyShell(gLoader, compilerConfiguration);
+        return createFromDelegatingScript(type, name, CompiledScriptCache.getInstance().newScript(text, name, type, loader));
     }
 
     /**
@@ -435,6 +432,105 @@ public class FactoryHelper extends GroovyObjectSupport {
         }
     }
 
+    /**
+     * Creates one independent root instance of the given type for each of the given URLs. The roots are created
+     * concurrently on the given executor, each in its own Construction session on its worker thread. Templates
+     * active on the calling thread are applied to all roots, and each worker uses the given class loader as its
+     * context class loader while creating a root.
+     * <p>
+     * All roots are created even if some of them fail; a root rejected by the executor or cancelled counts as
+     * failed. If only validation failed, a single
+     * {@link KlumValidationException} containing the validation results of all failed roots is thrown, otherwise
+     * a {@link KlumModelException} with the first failure as cause and the others as suppressed exceptions.
+     * </p>
+     *
+     * @param type     The type to create
+     * @param sources  The URLs to read
+     * @param executor The executor to create the roots on
+     * @param loader   The classloader to use for creating the scripts, null for the context class loader of the caller
+     * @param <T>      The type to create
+     * @return The created instances, ordered by key
+     */
+    public static <T> Map<String, T> createAllFrom(Class<T> type, Collection<URL> sources, Executor executor,
+                                                   @Nullable ClassLoader loader) {
+        ClassLoader effectiveLoader = loader != null ? loader : Thread.currentThread().getContextClassLoader();
+        Map<Class<?>, Object> templates = TemplateManager.captureTemplates();
+        Map<String, URL> sourcesByKey = new TreeMap<>();
+        for (URL source : sources) {
+            URL duplicate = sourcesByKey.putIfAbsent(extractKeyFromUrl(source), source);
+            if (duplicate != null)
+                throw new KlumModelException("Both " + duplicate + " and " + source + " provide the key '" + extractKeyFromUrl(source) + "'");
+        }
+
+        Map<String, CompletableFuture<T>> futures = new TreeMap<>();
+        List<Throwable> failures = new ArrayList<>();
+        sourcesByKey.forEach((key, source) -> {
+            try {
+                futures.put(key, CompletableFuture.supplyAsync(
+                        () -> withContextClassLoader(effectiveLoader, () ->
+                                TemplateManager.withCapturedTemplates(templates, () -> createFrom(type, source, null, effectiveLoader))),
+                        executor));
+            } catch (RejectedExecutionException e) {
+                // roots that were already submitted are still joined below
+                failures.add(e);
+            }
+        });
+
+        Map<String, T> result = new TreeMap<>();
+        futures.forEach((key, future) -> {
+            try {
+                result.put(key, future.join());
+            } catch (CompletionException e) {
+                failures.add(e.getCause());
+            } catch (CancellationException e) {
+                failures.add(e);
+            }
+        });
+        if (failures.isEmpty())
+            return result;
+
+        if (failures.stream().allMatch(KlumValidationException.class::isInstance))
+            throw new KlumValidationException(failures.stream()
+                    .flatMap(failure -> ((KlumValidationException) failure).getValidationResults().stream())
+                    .collect(Collectors.toList()));
+
+        KlumModelException exception = new KlumModelException("Could not create " + failures.size() + " of "
+                + sourcesByKey.size() + " instances of " + type.getName(), failures.get(0));
+        failures.stream().skip(1).forEach(exception::addSuppressed);
+        throw exception;
+    }
+
+    /**
+     * Runs the action with the given context class loader, so phase actions and validators are discovered from the
+     * same loader on a worker thread as on the calling thread.
+     */
+    private static <T> T withContextClassLoader(ClassLoader loader, Supplier<T> action) {
+        Thread thread = Thread.currentThread();
+        ClassLoader previous = thread.getContextClassLoader();
+        thread.setContextClassLoader(loader);
+        try {
+            return action.get();
+        } finally {
+            thread.setContextClassLoader(previous);
+        }
+    }
+
+    /**
+     * Returns the URLs of the regular files in the given directory whose names match the given glob pattern,
+     * as accepted by {@link Files#newDirectoryStream(Path, String)}.
+     */
+    public static List<URL> listFiles(Path directory, String glob) {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, glob)) {
+            List<URL> result = new ArrayList<>();
+            for (Path file : files)
+                if (Files.isRegularFile(file))
+                    result.add(file.toUri().toURL());
+            return result;
+        } catch (IOException e) {
+            throw new KlumModelException("Could not list files in " + directory, e);
+        }
+    }
+
     /**
      * Creates a template of the given type by reading the given resource, compiling it into a delegating script
      * and applying it to a newly created instance.
@@ -473,7 +569,7 @@ public class FactoryHelper extends GroovyObjectSupport {
                 InternalKlumBuilder<T> builder = createTemplateBuilder(type);
                 builder.copyFromTemplate();
 
-                DelegatingScript script = (DelegatingScript) createGroovyShell(loader).parse(text);
+                DelegatingScript script = CompiledScriptCache.getInstance().newScript(text, null, type, loader);
                 script.setDelegate(builder);
                 script.run();
                 return (T) InternalKlumBuilder.materializeGraph(builder);
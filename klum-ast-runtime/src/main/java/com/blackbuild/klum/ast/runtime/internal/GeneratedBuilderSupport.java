@@ -31,6 +31,7 @@ import com.blackbuild.klum.ast.runtime.KlumModelException;
 final class GeneratedBuilderSupport {
 
     private static final String CURRENT_SUFFIX = "$Builder";
+    private static final String INTERFACE_SUFFIX = "_DSL$Builder";
 
     private GeneratedBuilderSupport() {
     }
@@ -43,6 +44,14 @@ final class GeneratedBuilderSupport {
         }
     }
 
+    static Class<?> builderInterfaceFor(Class<?> modelType) {
+        try {
+            return modelType.getClassLoader().loadClass(modelType.getName() + INTERFACE_SUFFIX);
+        } catch (ClassNotFoundException e) {
+            throw new KlumModelException("No generated Builder interface found for " + modelType.getName(), e);
+        }
+    }
+
     static boolean hasBuilderFor(Class<?> modelType) {
         try {
             modelType.getClassLoader().loadClass(modelType.getName() + CURRENT_SUFFIX);
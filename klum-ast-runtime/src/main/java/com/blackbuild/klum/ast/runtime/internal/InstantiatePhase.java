@@ -34,6 +34,11 @@ public final class InstantiatePhase extends AbstractPhaseAction {
         super(DefaultKlumPhase.INSTANTIATE);
     }
 
+    @Override
+    public boolean isStateless() {
+        return true;
+    }
+
     @Override
     protected void doExecute() {
         Object root = PhaseDriver.getInstance().getRootObject();
@@ -65,6 +65,7 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.Type;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -87,6 +88,16 @@ public abstract class InternalKlumBuilder<M> extends GroovyObjectSupport impleme
     public static final String ADD_ELEMENTS_FROM_SCRIPTS_TO_COLLECTION = "addElementsFromScriptsToCollection";
     public static final String ADD_ELEMENTS_FROM_SCRIPTS_TO_MAP = "addElementsFromScriptsToMap";
 
+    /** Slot returned by {@link #$klum$slotOf(String)} for fields without a generated accessor. */
+    protected static final int NO_FIELD_SLOT = -1;
+
+    private static final ClassValue<Map<String, Integer>> FIELD_SLOTS = new ClassValue<>() {
+        @Override
+        protected Map<String, Integer> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
     private final Class<M> modelType;
     @SuppressWarnings("java:S1948") // generated DSL model implementations are always Serializable
     private M completedModel;
@@ -94,8 +105,10 @@ public abstract class InternalKlumBuilder<M> extends GroovyObjectSupport impleme
     private boolean template;
     private transient ConstructionSession constructionSession;
     private transient boolean constructionSessionActive;
+    private transient int visitationEpoch;
     private transient InternalKlumBuilder<?> compositionOwner;
     private transient String compositionFieldName;
+    private transient boolean allocating;
 
     private String breadcrumbPath;
     private String modelPath;
@@ -129,6 +142,24 @@ public abstract class InternalKlumBuilder<M> extends GroovyObjectSupport impleme
         return constructionSession == session && constructionSessionActive;
     }
 
+    /** Marks this Builder as visited by the traversal holding the given epoch, see {@link Visitation}. */
+    final boolean markVisited(int epoch) {
+        if (visitationEpoch == epoch)
+            return false;
+        visitationEpoch = epoch;
+        return true;
+    }
+
+    /** Internal hook used by the applyLater queue: the Builder whose composition relationship claimed this one. */
+    public final InternalKlumBuilder<?> $getCompositionOwner() {
+        return compositionOwner == this ? null : compositionOwner;
+    }
+
+    /** Internal hook used by the applyLater queue: the field of {@link #$getCompositionOwner()} holding this Builder. */
+    public final String $getCompositionFieldName() {
+        return compositionFieldName;
+    }
+
     public final Class<M> getModelType() {
         return modelType;
     }
@@ -172,19 +203,60 @@ public abstract class InternalKlumBuilder<M> extends GroovyObjectSupport impleme
         // generated layers add their declared relationship assignments
     }
 
+    /**
+     * Resolves the accessor slot of a Builder field. Generated layers answer for their declared fields
+     * and delegate every other name to their parent layer.
+     * @param fieldName the name of the Builder field
+     * @return the slot of the field, or {@link #NO_FIELD_SLOT} if the field must be accessed reflectively
+     */
+    protected int $klum$slotOf(String fieldName) {
+        return NO_FIELD_SLOT;
+    }
+
+    /** Reads the Builder field with the given slot, as resolved by {@link #$klum$slotOf(String)}. */
+    protected Object $klum$get(int slot) {
+        throw new KlumModelException(format("Builder %s has no field with slot %d", getClass().getName(), slot));
+    }
+
+    /** Writes the Builder field with the given slot, as resolved by {@link #$klum$slotOf(String)}. */
+    protected void $klum$set(int slot, Object value) {
+        throw new KlumModelException(format("Builder %s has no field with slot %d", getClass().getName(), slot));
+    }
+
+    private int fieldSlotOf(String fieldName) {
+        return FIELD_SLOTS.get(getClass()).computeIfAbsent(fieldName, this::$klum$slotOf);
+    }
+
+    /**
+     * Allocates the model and caches its structural hash code, which may allocate composed children first.
+     * A Builder that is already being allocated further up a composition cycle is left alone.
+     */
     final void allocateModel() {
-        if (completedModel != null)
+        if (completedModel != null || allocating)
             return;
-        completedModel = Objects.requireNonNull(instantiateModel(), "Generated Builder returned no model");
-        sealed = true;
+        allocating = true;
+        try {
+            M model = Objects.requireNonNull(instantiateModel(), "Generated Builder returned no model");
+            if (!template)
+                StructuralHashes.cacheHashCode(this, model);
+            completedModel = model;
+            sealed = true;
+        } finally {
+            allocating = false;
+        }
     }
 
     /**
      * Materializes a complete Builder graph in two passes so cycles and self links are preserved.
+     * Models are allocated in reverse discovery order, so children exist before the structural hash
+     * codes of their containers are computed. If enabled, equal values are then shared, see {@link ValueInterning}.
      */
     static Object materializeGraph(InternalKlumBuilder<?> root) {
         List<InternalKlumBuilder<?>> graph = collectGraph(root);
-        graph.forEach(InternalKlumBuilder::allocateModel);
+        for (int i = graph.size() - 1; i >= 0; i--)
+            graph.get(i).allocateModel();
+        if (ValueInterning.isEnabled() && !root.isTemplate())
+            ValueInterning.intern(graph);
         graph.forEach(InternalKlumBuilder::$assignRelationships);
         return root.getCompletedModel();
     }
@@ -201,34 +273,38 @@ public abstract class InternalKlumBuilder<M> extends GroovyObjectSupport impleme
         setFieldValue(completedModel, target, $materializeRelationship(fieldName));
     }
 
+    // iterative preorder, a stack of pending relationship values keeps deep graphs off the call stack
     private static List<InternalKlumBuilder<?>> collectGraph(InternalKlumBuilder<?> root) {
-        Set<InternalKlumBuilder<?>> visited = Collections.newSetFromMap(new IdentityHashMap<>());
         List<InternalKlumBuilder<?>> ordered = new ArrayList<>();
-        collectGraph(root, visited, ordered);
-        return ordered;
-    }
-
-    private static void collectGraph(InternalKlumBuilder<?> builder, Set<InternalKlumBuilder<?>> visited, List<InternalKlumBuilder<?>> ordered) {
-        if (builder == null || builder.isSealed() || !visited.add(builder))
-            return;
-        ordered.add(builder);
-        builder.compositionRelationshipValues().forEach(value -> collectRelationshipValue(value, visited, ordered));
-    }
-
-    private static void collectRelationshipValue(Object value, Set<InternalKlumBuilder<?>> visited, List<InternalKlumBuilder<?>> ordered) {
-        if (value instanceof InternalKlumBuilder) {
-            collectGraph((InternalKlumBuilder<?>) value, visited, ordered);
-        } else if (value instanceof Collection) {
-            ((Collection<?>) value).forEach(member -> collectRelationshipValue(member, visited, ordered));
-        } else if (value instanceof Map) {
-            ((Map<?, ?>) value).values().forEach(member -> collectRelationshipValue(member, visited, ordered));
+        Deque<Iterator<?>> pending = new ArrayDeque<>();
+        pending.push(Collections.singletonList(root).iterator());
+        try (Visitation visitation = Visitation.begin()) {
+            while (!pending.isEmpty()) {
+                Iterator<?> values = pending.peek();
+                if (!values.hasNext()) {
+                    pending.pop();
+                    continue;
+                }
+                Object value = values.next();
+                if (value instanceof InternalKlumBuilder<?> builder) {
+                    if (!builder.isSealed() && visitation.markVisited(builder)) {
+                        ordered.add(builder);
+                        pending.push(builder.compositionRelationshipValues().iterator());
+                    }
+                } else if (value instanceof Collection<?> collection) {
+                    pending.push(collection.iterator());
+                } else if (value instanceof Map<?, ?> map) {
+                    pending.push(map.values().iterator());
+                }
+            }
         }
+        return ordered;
     }
 
     private List<Object> compositionRelationshipValues() {
         List<Object> values = new ArrayList<>();
         for (Class<?> layer : DslHelper.getDslHierarchyOf(modelType)) {
-            for (Field field : layer.getDeclaredFields()) {
+            for (Field field : ClassSchema.of(layer).getDeclaredFields()) {
                 if (DslHelper.isRelationship(field) && !DslHelper.isOwner(field))
                     addCompositionRelationshipValues(values, field, getInstanceAttribute(field.getName()));
             }
@@ -253,7 +329,7 @@ public abstract class InternalKlumBuilder<M> extends GroovyObjectSupport impleme
     public final Object $snapshotField(String fieldName) {
         Field schemaField = getModelField(fieldName);
         Object value = getInstanceAttribute(fieldName);
-        return isMutableTransient(schemaField) ? value : snapshot(value, schemaField.getType());
+        return isMutableTransient(schemaField) ? value : MaterializationSnapshots.snapshot(value, schemaField.getType());
     }
 
     /** Called by generated internal relationship assignment code. */
@@ -264,83 +340,17 @@ public abstract class InternalKlumBuilder<M> extends GroovyObjectSupport impleme
             return null;
         if (value instanceof InternalKlumBuilder)
             return ((InternalKlumBuilder<?>) value).getCompletedModel();
-        if (value instanceof Map) {
-            Map<Object, Object> mapped = newMapSnapshotSource((Map<?, ?>) value, schemaField.getType());
-            ((Map<?, ?>) value).forEach((key, member) -> mapped.put(key, completedValue(member)));
-            return isMutableTransient(schemaField) ? mapped : makeMapReadOnly(mapped, schemaField.getType());
-        }
-        if (value instanceof Collection) {
-            Collection<Object> mapped = newCollectionSnapshotSource((Collection<?>) value, schemaField.getType());
-            ((Collection<?>) value).forEach(member -> mapped.add(completedValue(member)));
-            return isMutableTransient(schemaField) ? mapped : makeCollectionReadOnly(mapped, schemaField.getType());
-        }
+        if (value instanceof Map)
+            return MaterializationSnapshots.snapshotMap(value, schemaField.getType(), isMutableTransient(schemaField));
+        if (value instanceof Collection)
+            return MaterializationSnapshots.snapshotCollection(value, schemaField.getType(), isMutableTransient(schemaField));
         throw new KlumModelException(format("Relationship field %s.%s contains unsupported value %s", modelType.getName(), fieldName, value.getClass().getName()));
     }
 
-    private static Object completedValue(Object value) {
-        return value instanceof InternalKlumBuilder ? ((InternalKlumBuilder<?>) value).getCompletedModel() : value;
-    }
-
     private static boolean isMutableTransient(Field field) {
         return DslHelper.getKlumFieldType(field) == FieldType.TRANSIENT || Modifier.isTransient(field.getModifiers());
     }
 
-    private static Object snapshot(Object value, Class<?> declaredType) {
-        if (value == null)
-            return null;
-        if (value instanceof InternalKlumBuilder)
-            return ((InternalKlumBuilder<?>) value).getCompletedModel();
-        if (value instanceof EnumSet)
-            return ((EnumSet<?>) value).clone();
-        if (value instanceof Map) {
-            Map<Object, Object> copy = newMapSnapshotSource((Map<?, ?>) value, declaredType);
-            ((Map<?, ?>) value).forEach((key, member) -> copy.put(key, completedValue(member)));
-            return makeMapReadOnly(copy, declaredType);
-        }
-        if (value instanceof Collection) {
-            Collection<Object> copy = newCollectionSnapshotSource((Collection<?>) value, declaredType);
-            ((Collection<?>) value).forEach(member -> copy.add(completedValue(member)));
-            return makeCollectionReadOnly(copy, declaredType);
-        }
-        return value;
-    }
-
-    private static Collection<Object> newCollectionSnapshotSource(Collection<?> source, Class<?> declaredType) {
-        if (NavigableSet.class.equals(declaredType) || SortedSet.class.equals(declaredType)) {
-            Comparator<Object> comparator = source instanceof SortedSet ? (Comparator<Object>) ((SortedSet<?>) source).comparator() : null;
-            return new TreeSet<>(comparator);
-        }
-        if (Set.class.equals(declaredType))
-            return new LinkedHashSet<>();
-        return new ArrayList<>();
-    }
-
-    private static Map<Object, Object> newMapSnapshotSource(Map<?, ?> source, Class<?> declaredType) {
-        if (NavigableMap.class.equals(declaredType) || SortedMap.class.equals(declaredType)) {
-            Comparator<Object> comparator = source instanceof SortedMap ? (Comparator<Object>) ((SortedMap<?, ?>) source).comparator() : null;
-            return new TreeMap<>(comparator);
-        }
-        return new LinkedHashMap<>();
-    }
-
-    private static Object makeCollectionReadOnly(Collection<?> copy, Class<?> declaredType) {
-        if (NavigableSet.class.equals(declaredType))
-            return Collections.unmodifiableNavigableSet((NavigableSet<?>) copy);
-        if (SortedSet.class.equals(declaredType))
-            return Collections.unmodifiableSortedSet((SortedSet<?>) copy);
-        if (Set.class.equals(declaredType))
-            return Collections.unmodifiableSet((Set<?>) copy);
-        return Collections.unmodifiableList((List<?>) copy);
-    }
-
-    private static Object makeMapReadOnly(Map<?, ?> copy, Class<?> declaredType) {
-        if (NavigableMap.class.equals(declaredType))
-            return Collections.unmodifiableNavigableMap((NavigableMap<?, ?>) copy);
-        if (SortedMap.class.equals(declaredType))
-            return Collections.unmodifiableSortedMap((SortedMap<?, ?>) copy);
-        return Collections.unmodifiableMap(copy);
-    }
-
     final ModelState exportModelState() {
         return new ModelState(getBreadcrumbPath(), modelPath, metadata);
     }
@@ -357,7 +367,10 @@ public abstract class InternalKlumBuilder<M> extends GroovyObjectSupport impleme
                     modelPath,
                     TemplateRecipeState.capture(applyLaterClosures)
             );
-        return new KlumModelProxy(model, exportModelState());
+        KlumModelProxy companion = new KlumModelProxy(model, exportModelState());
+        if (constructionSessionActive)
+            companion.confineTo(constructionSession);
+        return companion;
     }
 
     static final class ModelState implements Serializable {
@@ -386,10 +399,16 @@ public abstract class InternalKlumBuilder<M> extends GroovyObjectSupport impleme
     }
 
     public <T> T getInstanceAttribute(String attributeName) {
+        int slot = fieldSlotOf(attributeName);
+        if (slot != NO_FIELD_SLOT)
+            return (T) $klum$get(slot);
         return (T) getFieldValue(this, getField(attributeName));
     }
 
     public <T> T getInstanceAttributeOrGetter(String attributeName) {
+        int slot = fieldSlotOf(attributeName);
+        if (slot != NO_FIELD_SLOT)
+            return (T) $klum$get(slot);
         Optional<Field> field = DslHelper.getField(getClass(), attributeName);
         if (field.isPresent())
             return (T) getFieldValue(this, field.get());
@@ -404,7 +423,11 @@ public abstract class InternalKlumBuilder<M> extends GroovyObjectSupport impleme
         assertMutable();
         Field schemaField = DslHelper.getField(modelType, name).orElse(null);
         Object normalized = schemaField != null ? normalizeForField(schemaField, value) : value;
-        setFieldValue(this, getField(name), normalized);
+        int slot = fieldSlotOf(name);
+        if (slot != NO_FIELD_SLOT)
+            $klum$set(slot, normalized);
+        else
+            setFieldValue(this, getField(name), normalized);
     }
 
     public Field getField(String name) {
@@ -1103,7 +1126,7 @@ public abstract class InternalKlumBuilder<M> extends GroovyObjectSupport impleme
         }
         applyLaterClosures.computeIfAbsent(number, ignore -> new ArrayList<>()).add(closure);
         if (!template)
-            PhaseDriver.getInstance().registerApplyLaterPhase(number);
+            PhaseDriver.getInstance().scheduleApplyLater(number, this, closure);
     }
 
     private static String defaultPhaseName(Integer number) {
@@ -1203,7 +1226,7 @@ public abstract class InternalKlumBuilder<M> extends GroovyObjectSupport impleme
 
     private static boolean fieldsRetainBuilder(Object value, Set<Object> visited) {
         for (Class<?> layer = value.getClass(); layer != null && layer != Object.class; layer = layer.getSuperclass()) {
-            for (Field field : layer.getDeclaredFields()) {
+            for (Field field : ClassSchema.of(layer).getDeclaredFields()) {
                 if (Modifier.isStatic(field.getModifiers()) || !field.trySetAccessible())
                     continue;
                 try {
@@ -1260,19 +1283,27 @@ public abstract class InternalKlumBuilder<M> extends GroovyObjectSupport impleme
     private static final class BuilderCaptureException extends IOException {
     }
 
-    public void executeApplyLaterClosures(int phase) {
+    /**
+     * Runs a single applyLater closure queued for the given phase, unless it is no longer pending on this Builder.
+     * @param phase the phase number the closure was scheduled for
+     * @param closure the queued closure
+     */
+    public void executeApplyLaterClosure(int phase, Closure<?> closure) {
         List<Closure<?>> closures = applyLaterClosures.get(phase);
-        if (closures == null)
+        if (closures == null || !removeIdentical(closures, closure))
             return;
-        int pendingAtPhaseStart = closures.size();
-        for (int index = 0; index < pendingAtPhaseStart; index++) {
-            Iterator<Closure<?>> iterator = closures.iterator();
-            Closure<?> closure = iterator.next();
-            iterator.remove();
-            applyOnly(null, closure);
-        }
         if (closures.isEmpty())
             applyLaterClosures.remove(phase);
+        applyOnly(null, closure);
+    }
+
+    private static boolean removeIdentical(List<Closure<?>> closures, Closure<?> closure) {
+        for (Iterator<Closure<?>> iterator = closures.iterator(); iterator.hasNext(); )
+            if (iterator.next() == closure) {
+                iterator.remove();
+                return true;
+            }
+        return false;
     }
 
     public void cleanup() {
@@ -1331,7 +1362,7 @@ public abstract class InternalKlumBuilder<M> extends GroovyObjectSupport impleme
 
     private void propagateModelPathToComposition() {
         for (Class<?> layer : DslHelper.getDslHierarchyOf(modelType)) {
-            for (Field field : layer.getDeclaredFields()) {
+            for (Field field : ClassSchema.of(layer).getDeclaredFields()) {
                 if (!DslHelper.isRelationship(field) || DslHelper.isOwner(field) || DslHelper.isLink(field))
                     continue;
                 propagateModelPath(field, getInstanceAttribute(field.getName()), modelPath + "." + field.getName());
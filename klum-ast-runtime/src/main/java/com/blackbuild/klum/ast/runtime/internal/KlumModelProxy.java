@@ -24,6 +24,7 @@
 package com.blackbuild.klum.ast.runtime.internal;
 import com.blackbuild.klum.ast.runtime.KlumModelException;
 import com.blackbuild.klum.ast.runtime.KlumException;
+import com.blackbuild.klum.ast.runtime.internal.process.ConstructionSession;
 
 import com.blackbuild.klum.ast.NoClosure;
 import com.blackbuild.klum.ast.Owner;
@@ -59,6 +60,10 @@ final class KlumModelProxy implements KlumObjectCompanion {
     private String modelPath;
     private final Map<String, Serializable> metadata;
     private final Set<Class<?>> executedValidators = new HashSet<>();
+    private Integer structuralHashCode;
+    // the Construction session materializing the model, which confines it to that thread, see Visitation
+    private transient ConstructionSession constructionSession;
+    private transient int visitationEpoch;
 
     KlumModelProxy(GroovyObject model, InternalKlumBuilder.ModelState state) {
         this.model = model;
@@ -104,6 +109,30 @@ final class KlumModelProxy implements KlumObjectCompanion {
             modelPath = path;
     }
 
+    /** Returns the structural hash code cached during Materialization, or null if none was computed. */
+    Integer getStructuralHashCode() {
+        return structuralHashCode;
+    }
+
+    void setStructuralHashCode(int structuralHashCode) {
+        this.structuralHashCode = structuralHashCode;
+    }
+
+    void confineTo(ConstructionSession session) {
+        constructionSession = session;
+    }
+
+    boolean isConfinedTo(ConstructionSession session) {
+        return constructionSession == session;
+    }
+
+    boolean markVisited(int epoch) {
+        if (visitationEpoch == epoch)
+            return false;
+        visitationEpoch = epoch;
+        return true;
+    }
+
     boolean hasMetaData(String key) {
         return metadata.containsKey(key);
     }
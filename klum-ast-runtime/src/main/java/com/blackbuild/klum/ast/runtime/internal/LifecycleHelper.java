@@ -29,13 +29,17 @@ import groovy.lang.Closure;
 import org.jetbrains.annotations.NotNull;
 
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Helper class that encapsulates lifecycle relevant methods. This reduces the complexity of KlumInstanceProxy.
@@ -53,20 +57,17 @@ public class LifecycleHelper {
      * @param annotation the annotation that marks the lifecycle methods and closures
      */
     public static void executeLifecycleMethods(InternalKlumBuilder<?> builder, Class<? extends Annotation> annotation) {
-        Object rw = builder;
-        DslHelper.getMethodsAnnotatedWith(rw.getClass(), annotation)
-                .map(Method::getName)
-                .distinct()
-                .map(name -> resolveLifecycleMethod(rw.getClass(), name))
-                .forEach(method -> {
-                    try {
-                        PhaseDriver.setCurrentMember(method.getName());
-                        invokeLifecycleMethod(rw, method);
-                    } finally {
-                        PhaseDriver.setCurrentMember(null);
-                    }
-                });
-        executeLifecycleClosures(builder, annotation);
+        LifecyclePlan plan = LifecyclePlan.of(builder.getClass(), annotation);
+        MethodHandle[] methods = plan.methods();
+        for (int i = 0; i < methods.length; i++) {
+            try {
+                PhaseDriver.setCurrentMember(plan.methodNames[i]);
+                invokeLifecycleMethod(builder, methods[i], plan.methodNames[i]);
+            } finally {
+                PhaseDriver.setCurrentMember(null);
+            }
+        }
+        executeLifecycleClosures(builder, plan);
     }
 
     private static Method resolveLifecycleMethod(Class<?> type, String name) {
@@ -80,17 +81,14 @@ public class LifecycleHelper {
         throw new KlumModelException("No lifecycle method named " + name + " found on " + type.getName());
     }
 
-    private static void invokeLifecycleMethod(Object target, Method method) {
+    @SuppressWarnings("java:S1181") // the handle rethrows whatever the lifecycle method throws
+    private static void invokeLifecycleMethod(Object target, MethodHandle method, String name) {
         try {
-            if (!method.trySetAccessible())
-                throw new KlumModelException("Cannot access lifecycle method " + method);
-            method.invoke(target);
-        } catch (InvocationTargetException exception) {
-            if (exception.getCause() instanceof RuntimeException runtimeException)
-                throw runtimeException;
-            throw new KlumModelException("Could not execute lifecycle method " + method, exception.getCause());
-        } catch (IllegalAccessException exception) {
-            throw new KlumModelException("Could not execute lifecycle method " + method, exception);
+            method.invokeExact(target);
+        } catch (RuntimeException exception) {
+            throw exception;
+        } catch (Throwable exception) {
+            throw new KlumModelException("Could not execute lifecycle method " + name + " of " + target.getClass().getName(), exception);
         }
     }
 
@@ -109,10 +107,12 @@ public class LifecycleHelper {
      * @param annotation the annotation that marks the lifecycle closures
      */
     public static void executeLifecycleClosures(InternalKlumBuilder<?> builder, Class<? extends Annotation> annotation) {
-        DslHelper.getFieldsAnnotatedWith(builder.getClass(), annotation)
-                .filter(field -> field.getType().equals(Closure.class))
-                .map(Field::getName)
-                .forEach(name -> executeLifecycleClosure(builder, name));
+        executeLifecycleClosures(builder, LifecyclePlan.of(builder.getClass(), annotation));
+    }
+
+    private static void executeLifecycleClosures(InternalKlumBuilder<?> builder, LifecyclePlan plan) {
+        for (String name : plan.closureFields)
+            executeLifecycleClosure(builder, name);
     }
 
     /**
@@ -186,4 +186,64 @@ public class LifecycleHelper {
         return true;
     }
 
+    /**
+     * The lifecycle callbacks of one Builder class for one lifecycle annotation, resolved once.
+     * Methods are ordered by layer and name and dispatched virtually, i.e. an overriding method of
+     * the Builder class replaces the annotated method of its parent layer.
+     */
+    private static final class LifecyclePlan {
+        private static final MethodType CALLBACK_TYPE = MethodType.methodType(void.class, Object.class);
+        private static final ClassValue<Map<Class<? extends Annotation>, LifecyclePlan>> PLANS = new ClassValue<>() {
+            @Override
+            protected Map<Class<? extends Annotation>, LifecyclePlan> computeValue(Class<?> type) {
+                return new ConcurrentHashMap<>();
+            }
+        };
+
+        private final Class<?> type;
+        private final Class<? extends Annotation> annotation;
+        private final String[] closureFields;
+        // resolved on first use, closure-only lifecycles (like Owner) may annotate methods with parameters
+        private volatile MethodHandle[] methods;
+        private String[] methodNames;
+
+        private LifecyclePlan(Class<?> type, Class<? extends Annotation> annotation) {
+            this.type = type;
+            this.annotation = annotation;
+            closureFields = ClassSchema.of(type).getFieldsAnnotatedWith(annotation).stream()
+                    .filter(field -> field.getType().equals(Closure.class))
+                    .map(Field::getName)
+                    .toArray(String[]::new);
+        }
+
+        private MethodHandle[] methods() {
+            MethodHandle[] result = methods;
+            if (result == null) {
+                String[] names = ClassSchema.of(type).getMethodsAnnotatedWith(annotation).stream()
+                        .map(Method::getName)
+                        .distinct()
+                        .toArray(String[]::new);
+                result = new MethodHandle[names.length];
+                for (int i = 0; i < names.length; i++)
+                    result[i] = toHandle(resolveLifecycleMethod(type, names[i]));
+                methodNames = names;
+                methods = result;
+            }
+            return result;
+        }
+
+        static LifecyclePlan of(Class<?> type, Class<? extends Annotation> annotation) {
+            return PLANS.get(type).computeIfAbsent(annotation, key -> new LifecyclePlan(type, key));
+        }
+
+        private static MethodHandle toHandle(Method method) {
+            if (!method.trySetAccessible())
+                throw new KlumModelException("Cannot access lifecycle method " + method);
+            try {
+                return MethodHandles.lookup().unreflect(method).asType(CALLBACK_TYPE);
+            } catch (IllegalAccessException exception) {
+                throw new KlumModelException("Cannot access lifecycle method " + method, exception);
+            }
+        }
+    }
 }
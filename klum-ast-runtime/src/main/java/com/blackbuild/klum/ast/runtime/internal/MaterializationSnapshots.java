@@ -0,0 +1,169 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.ast.runtime.internal;
+
+import java.util.*;
+
+/**
+ * Copies Builder values into the immutable values retained by completed DSL Objects.
+ *
+ * <p>Builders contained in copied values are replaced by their completed models. Immutable copies use the exact
+ * sized collections of {@link CompactCollections} and {@link CompactSortedCollections}, except for Builder storage
+ * created by {@link OwnedCollections}, which is frozen and retained without copying. This type is public
+ * only for generated-code linkage through {@link com.blackbuild.klum.ast.runtime.generated.GeneratedModelSupport};
+ * it is not supported client API.</p>
+ */
+@SuppressWarnings("unchecked")
+public final class MaterializationSnapshots {
+
+    private MaterializationSnapshots() {
+        // static only
+    }
+
+    /**
+     * Snapshots a value whose declared type gives no hint about its shape.
+     * @param value the Builder value
+     * @param declaredType the declared type of the model field
+     * @return the value to store in the model
+     */
+    public static Object snapshot(Object value, Class<?> declaredType) {
+        if (value instanceof Map)
+            return snapshotMap(value, declaredType, false);
+        if (value instanceof Collection)
+            return snapshotCollection(value, declaredType, false);
+        return completedValue(value);
+    }
+
+    /**
+     * Snapshots a collection value.
+     * @param value the Builder collection, may be null
+     * @param declaredType the declared collection type of the model field
+     * @param mutable whether the model field keeps a mutable copy (transient fields)
+     * @return the copy to store in the model
+     */
+    public static Object snapshotCollection(Object value, Class<?> declaredType, boolean mutable) {
+        if (value == null)
+            return null;
+        if (!mutable && value instanceof EnumSet)
+            return ((EnumSet<?>) value).clone();
+        if (!mutable && OwnedCollections.freezeFor(value, declaredType))
+            return value;
+        Collection<?> source = (Collection<?>) value;
+        if (!mutable)
+            return newCompactCollection(source, declaredType);
+        Collection<Object> copy = newCollectionSnapshotSource(source, declaredType);
+        for (Object member : source)
+            copy.add(completedValue(member));
+        return copy;
+    }
+
+    /**
+     * Snapshots a map value.
+     * @param value the Builder map, may be null
+     * @param declaredType the declared map type of the model field
+     * @param mutable whether the model field keeps a mutable copy (transient fields)
+     * @return the copy to store in the model
+     */
+    public static Object snapshotMap(Object value, Class<?> declaredType, boolean mutable) {
+        if (value == null)
+            return null;
+        if (!mutable && OwnedCollections.freezeFor(value, declaredType))
+            return value;
+        Map<?, ?> source = (Map<?, ?>) value;
+        if (!mutable)
+            return newCompactMap(source, declaredType);
+        Map<Object, Object> copy = newMapSnapshotSource(source, declaredType);
+        for (Map.Entry<?, ?> entry : source.entrySet())
+            copy.put(entry.getKey(), completedValue(entry.getValue()));
+        return copy;
+    }
+
+    /** Replaces a Builder by its completed model; any other value is returned unchanged. */
+    public static Object completedValue(Object value) {
+        return value instanceof InternalKlumBuilder ? ((InternalKlumBuilder<?>) value).getCompletedModel() : value;
+    }
+
+    private static Collection<Object> newCollectionSnapshotSource(Collection<?> source, Class<?> declaredType) {
+        if (NavigableSet.class.equals(declaredType) || SortedSet.class.equals(declaredType)) {
+            Comparator<Object> comparator = source instanceof SortedSet ? (Comparator<Object>) ((SortedSet<?>) source).comparator() : null;
+            return new TreeSet<>(comparator);
+        }
+        if (Set.class.equals(declaredType))
+            return new LinkedHashSet<>();
+        return new ArrayList<>();
+    }
+
+    private static Map<Object, Object> newMapSnapshotSource(Map<?, ?> source, Class<?> declaredType) {
+        if (NavigableMap.class.equals(declaredType) || SortedMap.class.equals(declaredType)) {
+            Comparator<Object> comparator = source instanceof SortedMap ? (Comparator<Object>) ((SortedMap<?, ?>) source).comparator() : null;
+            return new TreeMap<>(comparator);
+        }
+        return new LinkedHashMap<>();
+    }
+
+    /** Replaces the Builders among the members by their completed models, returns whether there were any. */
+    private static boolean completeMembers(Object[] members) {
+        boolean replaced = false;
+        for (int i = 0; i < members.length; i++) {
+            if (members[i] instanceof InternalKlumBuilder) {
+                members[i] = completedValue(members[i]);
+                replaced = true;
+            }
+        }
+        return replaced;
+    }
+
+    private static Object newCompactCollection(Collection<?> source, Class<?> declaredType) {
+        Object[] members = source.toArray();
+        boolean replaced = completeMembers(members);
+        if (NavigableSet.class.equals(declaredType) || SortedSet.class.equals(declaredType)) {
+            if (!(source instanceof SortedSet))
+                return CompactSortedCollections.sortedSetOf(members, null);
+            // The members of a sorted source are already in order, unless its Builders were replaced by their models.
+            Comparator<?> comparator = ((SortedSet<?>) source).comparator();
+            return replaced
+                    ? CompactSortedCollections.sortedSetOf(members, comparator)
+                    : CompactSortedCollections.sortedSetOfSorted(members, comparator);
+        }
+        if (Set.class.equals(declaredType))
+            return CompactCollections.setOf(members);
+        return CompactCollections.listOf(members);
+    }
+
+    private static Object newCompactMap(Map<?, ?> source, Class<?> declaredType) {
+        Object[] keys = new Object[source.size()];
+        Object[] values = new Object[keys.length];
+        int index = 0;
+        for (Map.Entry<?, ?> entry : source.entrySet()) {
+            keys[index] = entry.getKey();
+            values[index++] = completedValue(entry.getValue());
+        }
+        if (NavigableMap.class.equals(declaredType) || SortedMap.class.equals(declaredType)) {
+            if (source instanceof SortedMap)
+                return CompactSortedCollections.sortedMapOfSorted(keys, values, ((SortedMap<?, ?>) source).comparator());
+            return CompactSortedCollections.sortedMapOf(keys, values, null);
+        }
+        return CompactCollections.mapOf(keys, values);
+    }
+}
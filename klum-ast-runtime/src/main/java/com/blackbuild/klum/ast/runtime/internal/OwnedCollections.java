@@ -0,0 +1,466 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.ast.runtime.internal;
+
+import com.blackbuild.klum.ast.runtime.internal.CompactCollections.PositionIndex;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.function.IntConsumer;
+import java.util.function.IntSupplier;
+
+import static com.blackbuild.klum.ast.runtime.internal.CompactCollections.LINEAR_SCAN_LIMIT;
+import static com.blackbuild.klum.ast.runtime.internal.CompactCollections.linearPositionOf;
+
+/**
+ * Builder storage for List, Set and Map fields that is handed over to the completed model instead of being copied.
+ *
+ * <p>Generated Builders initialize their non-relationship collection fields with these collections. They are
+ * ordinary mutable collections during construction, with sets and maps keeping their insertion order. When the
+ * model is materialized, it takes over the storage of its Builder and freezes it, so every later modification,
+ * including one through a reference that escaped from the Builder, fails with an
+ * {@link UnsupportedOperationException}. Values assigned to a field replace its storage and are still copied.</p>
+ *
+ * <p>This type is public only for generated-code linkage through
+ * {@link com.blackbuild.klum.ast.runtime.generated.GeneratedModelSupport}; it is not supported client API.</p>
+ */
+@SuppressWarnings("unchecked")
+public final class OwnedCollections {
+
+    private static final Object[] NO_ELEMENTS = new Object[0];
+
+    private OwnedCollections() {
+        // static only
+    }
+
+    public static <E> List<E> newList() {
+        return new OwnedList<>();
+    }
+
+    public static <E> Set<E> newSet() {
+        return new OwnedSet<>();
+    }
+
+    public static <K, V> Map<K, V> newMap() {
+        return new OwnedMap<>();
+    }
+
+    /**
+     * Freezes Builder storage that can be retained by a model field of the given type.
+     * @param value the Builder value
+     * @param declaredType the declared type of the model field
+     * @return true if the value is owned storage of the matching kind and is now frozen, so the model may retain it
+     */
+    static boolean freezeFor(Object value, Class<?> declaredType) {
+        boolean owned = List.class.equals(declaredType) && value instanceof OwnedList
+                || Set.class.equals(declaredType) && value instanceof OwnedSet
+                || Map.class.equals(declaredType) && value instanceof OwnedMap;
+        if (owned)
+            ((Owned) value).freeze();
+        return owned;
+    }
+
+    /** Returns whether the value is owned storage that a completed model has taken over. */
+    static boolean isFrozen(Object value) {
+        return value instanceof Owned owned && owned.isFrozen();
+    }
+
+    private static Object[] grow(Object[] array, int size) {
+        return size < array.length ? array : Arrays.copyOf(array, Math.max(4, size + (size >> 1)));
+    }
+
+    private static void assertMutable(boolean frozen) {
+        if (frozen)
+            throw new UnsupportedOperationException("Collections of completed DSL Objects cannot be modified");
+    }
+
+    /** Owned storage, which becomes immutable when its model takes it over. */
+    private interface Owned {
+        void freeze();
+
+        boolean isFrozen();
+    }
+
+    private static final class OwnedList<E> extends AbstractList<E> implements Owned, RandomAccess, Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private boolean frozen;
+        private Object[] elements = NO_ELEMENTS;
+        private int size;
+
+        @Override
+        public void freeze() {
+            frozen = true;
+        }
+
+        @Override
+        public boolean isFrozen() {
+            return frozen;
+        }
+
+        @Override
+        public E get(int index) {
+            Objects.checkIndex(index, size);
+            return (E) elements[index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public E set(int index, E element) {
+            assertMutable(frozen);
+            Objects.checkIndex(index, size);
+            E previous = (E) elements[index];
+            elements[index] = element;
+            return previous;
+        }
+
+        @Override
+        public void add(int index, E element) {
+            assertMutable(frozen);
+            Objects.checkIndex(index, size + 1);
+            elements = grow(elements, size);
+            System.arraycopy(elements, index, elements, index + 1, size - index);
+            elements[index] = element;
+            size++;
+            modCount++;
+        }
+
+        @Override
+        public E remove(int index) {
+            assertMutable(frozen);
+            Objects.checkIndex(index, size);
+            E previous = (E) elements[index];
+            removeRange(index, index + 1);
+            return previous;
+        }
+
+        @Override
+        protected void removeRange(int fromIndex, int toIndex) {
+            assertMutable(frozen);
+            System.arraycopy(elements, toIndex, elements, fromIndex, size - toIndex);
+            int newSize = size - (toIndex - fromIndex);
+            Arrays.fill(elements, newSize, size, null);
+            size = newSize;
+            modCount++;
+        }
+
+        @Override
+        public int indexOf(Object o) {
+            return linearPositionOf(elements, size, o);
+        }
+
+        @Override
+        public Object[] toArray() {
+            return Arrays.copyOf(elements, size);
+        }
+    }
+
+    /** An insertion ordered set, indexed like the sets of {@link CompactCollections}. */
+    private static final class OwnedSet<E> extends AbstractSet<E> implements Owned, Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private boolean frozen;
+        private Object[] elements = NO_ELEMENTS;
+        private int size;
+        private PositionIndex index;
+        private transient int modCount;
+
+        @Override
+        public void freeze() {
+            frozen = true;
+        }
+
+        @Override
+        public boolean isFrozen() {
+            return frozen;
+        }
+
+        private int positionOf(Object element) {
+            return index != null ? index.positionOf(elements, element) : linearPositionOf(elements, size, element);
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return positionOf(o) >= 0;
+        }
+
+        @Override
+        public boolean add(E element) {
+            assertMutable(frozen);
+            if (positionOf(element) >= 0)
+                return false;
+            elements = grow(elements, size);
+            elements[size] = element;
+            if (index != null && size < index.capacity())
+                index.add(elements, size, element);
+            size++;
+            modCount++;
+            if (size > LINEAR_SCAN_LIMIT && (index == null || size > index.capacity()))
+                index = reindex(elements, size);
+            return true;
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            int position = positionOf(o);
+            if (position < 0)
+                return false;
+            removeAt(position);
+            return true;
+        }
+
+        private void removeAt(int position) {
+            assertMutable(frozen);
+            System.arraycopy(elements, position + 1, elements, position, size - position - 1);
+            elements[--size] = null;
+            modCount++;
+            index = size > LINEAR_SCAN_LIMIT ? reindex(elements, size) : null;
+        }
+
+        @Override
+        public void clear() {
+            assertMutable(frozen);
+            Arrays.fill(elements, 0, size, null);
+            size = 0;
+            modCount++;
+            index = null;
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return new PositionIterator<>(() -> size, () -> modCount, this::removeAt) {
+                @Override
+                E get(int position) {
+                    return (E) elements[position];
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Object[] toArray() {
+            return Arrays.copyOf(elements, size);
+        }
+    }
+
+    /** An insertion ordered map, indexed by its keys like the maps of {@link CompactCollections}. */
+    private static final class OwnedMap<K, V> extends AbstractMap<K, V> implements Owned, Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private boolean frozen;
+        private Object[] keys = NO_ELEMENTS;
+        private Object[] values = NO_ELEMENTS;
+        private int size;
+        private PositionIndex index;
+        private transient int modCount;
+
+        @Override
+        public void freeze() {
+            frozen = true;
+        }
+
+        @Override
+        public boolean isFrozen() {
+            return frozen;
+        }
+
+        private int positionOf(Object key) {
+            return index != null ? index.positionOf(keys, key) : linearPositionOf(keys, size, key);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return positionOf(key) >= 0;
+        }
+
+        @Override
+        public V get(Object key) {
+            int position = positionOf(key);
+            return position >= 0 ? (V) values[position] : null;
+        }
+
+        @Override
+        public V put(K key, V value) {
+            assertMutable(frozen);
+            int position = positionOf(key);
+            if (position >= 0) {
+                V previous = (V) values[position];
+                values[position] = value;
+                return previous;
+            }
+            keys = grow(keys, size);
+            values = grow(values, size);
+            keys[size] = key;
+            values[size] = value;
+            if (index != null && size < index.capacity())
+                index.add(keys, size, key);
+            size++;
+            modCount++;
+            if (size > LINEAR_SCAN_LIMIT && (index == null || size > index.capacity()))
+                index = reindex(keys, size);
+            return null;
+        }
+
+        @Override
+        public V remove(Object key) {
+            int position = positionOf(key);
+            if (position < 0)
+                return null;
+            V previous = (V) values[position];
+            removeAt(position);
+            return previous;
+        }
+
+        private void removeAt(int position) {
+            assertMutable(frozen);
+            System.arraycopy(keys, position + 1, keys, position, size - position - 1);
+            System.arraycopy(values, position + 1, values, position, size - position - 1);
+            size--;
+            keys[size] = null;
+            values[size] = null;
+            modCount++;
+            index = size > LINEAR_SCAN_LIMIT ? reindex(keys, size) : null;
+        }
+
+        @Override
+        public void clear() {
+            assertMutable(frozen);
+            Arrays.fill(keys, 0, size, null);
+            Arrays.fill(values, 0, size, null);
+            size = 0;
+            modCount++;
+            index = null;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Set<Entry<K, V>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<K, V>> iterator() {
+                    return new PositionIterator<>(() -> size, () -> modCount, OwnedMap.this::removeAt) {
+                        @Override
+                        Entry<K, V> get(int position) {
+                            return new SimpleEntry<>((K) keys[position], (V) values[position]) {
+                                @Override
+                                public V setValue(V value) {
+                                    assertMutable(frozen);
+                                    values[position] = value;
+                                    return super.setValue(value);
+                                }
+                            };
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+    }
+
+    private static PositionIndex reindex(Object[] elements, int size) {
+        PositionIndex index = new PositionIndex(size + (size >> 1));
+        for (int position = 0; position < size; position++)
+            index.add(elements, position, elements[position]);
+        return index;
+    }
+
+    /**
+     * Iterates positions {@code 0..size-1}, removing through the owning collection. Like the iterators of the JDK
+     * collections, it fails fast once the owning collection is structurally modified other than through it.
+     */
+    private abstract static class PositionIterator<T> implements Iterator<T> {
+        private final IntSupplier size;
+        private final IntSupplier modCount;
+        private final IntConsumer removal;
+        private int expectedModCount;
+        private int next;
+        private int last = -1;
+
+        PositionIterator(IntSupplier size, IntSupplier modCount, IntConsumer removal) {
+            this.size = size;
+            this.modCount = modCount;
+            this.removal = removal;
+            this.expectedModCount = modCount.getAsInt();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < size.getAsInt();
+        }
+
+        @Override
+        public T next() {
+            checkForComodification();
+            if (next >= size.getAsInt())
+                throw new NoSuchElementException();
+            last = next;
+            return get(next++);
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0)
+                throw new IllegalStateException();
+            checkForComodification();
+            removal.accept(last);
+            expectedModCount = modCount.getAsInt();
+            next = last;
+            last = -1;
+        }
+
+        private void checkForComodification() {
+            if (modCount.getAsInt() != expectedModCount)
+                throw new ConcurrentModificationException();
+        }
+
+        abstract T get(int position);
+    }
+}
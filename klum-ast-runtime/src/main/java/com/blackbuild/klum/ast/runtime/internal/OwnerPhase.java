@@ -38,12 +38,27 @@ import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 public class OwnerPhase extends BuilderVisitingPhaseAction {
+
+    private static final Predicate<Class<?>> APPLICABLE = PhaseApplicability.perType(type ->
+            PhaseApplicability.declares(type, Owner.class) || PhaseApplicability.declares(type, Role.class));
+
     public OwnerPhase() {
         super(DefaultKlumPhase.OWNER);
     }
 
+    @Override
+    public boolean isStateless() {
+        return true;
+    }
+
+    @Override
+    public boolean appliesTo(Class<?> modelType) {
+        return APPLICABLE.test(modelType);
+    }
+
     @Override
     protected void doVisit(@NotNull String path, @NotNull InternalKlumBuilder<?> element, @Nullable Object container, @Nullable String nameOfFieldInContainer) {
         if (container == null) return;
@@ -55,20 +70,20 @@ public class OwnerPhase extends BuilderVisitingPhaseAction {
     }
 
     private void setDirectOwners(InternalKlumBuilder<?> builder, Object value) {
-        DslHelper.getFieldsAnnotatedWith(builder.getClass(), Owner.class)
+        ClassSchema.of(builder.getClass()).getFieldsAnnotatedWith(Owner.class).stream()
                 .filter(this::isNotTransitive)
                 .filter(field -> isExpectedOwnerType(getOwnerType(field), value))
                 .filter(field -> isUnset(builder, field))
                 .forEach(field -> setOwnerFieldValue(builder, value, field));
 
-        DslHelper.getMethodsAnnotatedWith(builder.getClass(), Owner.class)
+        ClassSchema.of(builder.getClass()).getMethodsAnnotatedWith(Owner.class).stream()
                 .filter(this::isNotTransitive)
                 .filter(method -> isExpectedOwnerType(getOwnerType(method), value))
                 .forEach(method -> callOwnerMethod(builder, value, method));
     }
 
     private void setRoles(InternalKlumBuilder<?> builder, Object container) {
-        DslHelper.getFieldsAnnotatedWith(builder.getClass(), Role.class)
+        ClassSchema.of(builder.getClass()).getFieldsAnnotatedWith(Role.class).stream()
                 .filter(field -> isUnset(builder, field))
                 .filter(field -> isExpectedOwnerType(field.getAnnotation(Role.class).value(), container))
                 .forEach(field -> setRole(
@@ -77,7 +92,7 @@ public class OwnerPhase extends BuilderVisitingPhaseAction {
                         path -> builder.setInstanceAttribute(field.getName(), path))
                 );
 
-        DslHelper.getMethodsAnnotatedWith(builder.getClass(), Role.class)
+        ClassSchema.of(builder.getClass()).getMethodsAnnotatedWith(Role.class).stream()
                 .filter(method -> isExpectedOwnerType(method.getAnnotation(Role.class).value(), container))
                 .forEach(method -> setRole(
                         builder,
@@ -91,12 +106,12 @@ public class OwnerPhase extends BuilderVisitingPhaseAction {
     }
 
     private void setTransitiveOwners(InternalKlumBuilder<?> builder) {
-        DslHelper.getFieldsAnnotatedWith(builder.getClass(), Owner.class)
+        ClassSchema.of(builder.getClass()).getFieldsAnnotatedWith(Owner.class).stream()
                 .filter(this::isTransitive)
                 .filter(field -> isUnset(builder, field))
                 .forEach(field -> setSingleTransitiveOwner(builder, field));
 
-        DslHelper.getMethodsAnnotatedWith(builder.getClass(), Owner.class)
+        ClassSchema.of(builder.getClass()).getMethodsAnnotatedWith(Owner.class).stream()
                 .filter(this::isTransitive)
                 .forEach(method -> callTransitiveOwnerMethod(builder, method));
     }
@@ -104,12 +119,12 @@ public class OwnerPhase extends BuilderVisitingPhaseAction {
     private void setRootOwners(InternalKlumBuilder<?> builder) {
         Object root = PhaseDriver.getInstance().getRootObject();
 
-        DslHelper.getFieldsAnnotatedWith(builder.getClass(), Owner.class)
+        ClassSchema.of(builder.getClass()).getFieldsAnnotatedWith(Owner.class).stream()
                 .filter(this::isRoot)
                 .filter(field -> isUnset(builder, field))
                 .forEach(field -> setOwnerFieldValue(builder, root, field));
 
-        DslHelper.getMethodsAnnotatedWith(builder.getClass(), Owner.class)
+        ClassSchema.of(builder.getClass()).getMethodsAnnotatedWith(Owner.class).stream()
                 .filter(this::isRoot)
                 .forEach(method -> callOwnerMethod(builder, root, method));
     }
@@ -0,0 +1,99 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.ast.runtime.internal;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.util.function.Predicate;
+
+/**
+ * Schema-derived applicability of the built-in Builder phases.
+ *
+ * <p>A phase applies to a model type if the generated Builder or the model declares a member carrying one of
+ * the annotations the phase acts on. Annotated fields, lifecycle methods and lifecycle closures are all members,
+ * so this is a cheap and conservative check of whether visiting a Builder may do anything at all.</p>
+ *
+ * <p>This type is public only because the built-in phases of the {@code layer3} and {@code validation} packages,
+ * like AUTO_CREATE, AUTO_LINK and EARLY_VALIDATE, declare their applicability through it. It is not supported
+ * client API.</p>
+ */
+public final class PhaseApplicability {
+
+    private static final ClassValue<ClassSchema> BUILDER_SCHEMAS = new ClassValue<>() {
+        @Override
+        protected ClassSchema computeValue(Class<?> modelType) {
+            return ClassSchema.of(GeneratedBuilderSupport.builderTypeFor(modelType));
+        }
+    };
+
+    private PhaseApplicability() {
+        // static only
+    }
+
+    /**
+     * Caches a predicate over model types.
+     * @param predicate a predicate that only depends on the schema of the type
+     * @return a predicate evaluating the given one at most once per type
+     */
+    public static Predicate<Class<?>> perType(Predicate<Class<?>> predicate) {
+        ClassValue<Boolean> results = new ClassValue<>() {
+            @Override
+            protected Boolean computeValue(Class<?> type) {
+                return predicate.test(type);
+            }
+        };
+        return results::get;
+    }
+
+    /**
+     * Returns whether the generated Builder of the model type, or the model type itself, declares a field or
+     * method carrying the given annotation.
+     */
+    public static boolean declares(Class<?> modelType, Class<? extends Annotation> annotation) {
+        return hasMembersAnnotatedWith(BUILDER_SCHEMAS.get(modelType), annotation)
+                || hasMembersAnnotatedWith(ClassSchema.of(modelType), annotation);
+    }
+
+    /** Returns whether the DSL hierarchy of the model type carries an annotation that is meta-annotated with the given one. */
+    static boolean isMetaAnnotatedWith(Class<?> modelType, Class<? extends Annotation> metaAnnotation) {
+        return DslHelper.getDslHierarchyOf(modelType).stream()
+                .anyMatch(layer -> AnnotationHelper.getMetaAnnotated(layer, metaAnnotation).findAny().isPresent());
+    }
+
+    /**
+     * Returns whether a field of the generated Builder of the model type carries an annotation that is
+     * meta-annotated with the given one.
+     */
+    static boolean declaresMetaAnnotatedField(Class<?> modelType, Class<? extends Annotation> metaAnnotation) {
+        for (Class<?> layer : BUILDER_SCHEMAS.get(modelType).getHierarchy())
+            for (Field field : ClassSchema.of(layer).getDeclaredFields())
+                if (AnnotationHelper.getMetaAnnotated(field, metaAnnotation).findAny().isPresent())
+                    return true;
+        return false;
+    }
+
+    private static boolean hasMembersAnnotatedWith(ClassSchema schema, Class<? extends Annotation> annotation) {
+        return !schema.getFieldsAnnotatedWith(annotation).isEmpty() || !schema.getMethodsAnnotatedWith(annotation).isEmpty();
+    }
+}
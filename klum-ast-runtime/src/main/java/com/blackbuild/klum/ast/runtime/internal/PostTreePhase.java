@@ -29,11 +29,27 @@ import com.blackbuild.klum.ast.runtime.BuilderVisitingPhaseAction;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.function.Predicate;
+
 public class PostTreePhase extends BuilderVisitingPhaseAction {
+
+    private static final Predicate<Class<?>> APPLICABLE = PhaseApplicability.perType(type ->
+            PhaseApplicability.declares(type, PostTree.class));
+
     public PostTreePhase() {
         super(DefaultKlumPhase.POST_TREE);
     }
 
+    @Override
+    public boolean isStateless() {
+        return true;
+    }
+
+    @Override
+    public boolean appliesTo(Class<?> modelType) {
+        return APPLICABLE.test(modelType);
+    }
+
     @Override
     protected void doVisit(@NotNull String path, @NotNull InternalKlumBuilder<?> builder, @Nullable Object container, @Nullable String nameOfFieldInContainer) {
         LifecycleHelper.executeLifecycleMethods(builder, PostTree.class);
@@ -0,0 +1,367 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.ast.runtime.internal;
+
+import com.blackbuild.klum.ast.runtime.KlumModelException;
+import groovy.lang.GroovyClassLoader;
+import groovy.lang.GroovySystem;
+import groovy.util.DelegatingScript;
+import groovyjarjarasm.asm.ClassReader;
+import groovyjarjarasm.asm.ClassVisitor;
+import groovyjarjarasm.asm.commons.ClassRemapper;
+import groovyjarjarasm.asm.commons.Remapper;
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.control.CompilationFailedException;
+import org.codehaus.groovy.control.CompilationUnit;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.Phases;
+import org.codehaus.groovy.tools.GroovyClass;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Stores the bytecode of compiled configuration scripts in a directory, so that a later JVM can load a script
+ * without compiling it.
+ *
+ * <p>Entries are keyed by the script text and name, the Groovy version and a fingerprint of the schema the script
+ * configures, that is of every DSL type reachable from the configured type and of the Builder interface the script
+ * is compiled against. Each entry also records the classes its bytecode references, like helper classes, enums or
+ * the targets of static imports, together with a fingerprint of them taken at compile time. An entry that is
+ * missing, unreadable, has a different key, references classes that changed or no longer links against its class
+ * loader is simply compiled again and replaced. Write failures are ignored, since the store is only an
+ * optimization.</p>
+ */
+final class ScriptBytecodeStore {
+
+    private static final int FORMAT = 0x4b4c5332; // "KLS2"
+    private static final String SUFFIX = ".klumscript";
+
+    private final Path directory;
+
+    ScriptBytecodeStore(Path directory) {
+        this.directory = directory;
+    }
+
+    Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Loads the script class for the given text from the store, compiling and storing it if necessary.
+     * @param text the script text
+     * @param name the name of the script class, or null to derive one from the text
+     * @param modelType the type the script configures, whose schema is part of the key
+     * @param builderInterface the Builder interface to compile the script statically against, or null
+     * @param parent the class loader the script is compiled against
+     * @return the script class
+     */
+    Class<? extends DelegatingScript> loadOrCompile(String text, @Nullable String name, Class<?> modelType,
+                                                    @Nullable Class<?> builderInterface, ClassLoader parent) {
+        String key = keyOf(text, name, modelType, builderInterface);
+        Path file = directory.resolve(key + SUFFIX);
+        StoredScript stored = read(file, key, parent);
+        if (stored != null) {
+            try {
+                return stored.define(parent);
+            } catch (LinkageError e) {
+                // the stored bytecode does not fit the classes it is loaded against, compile it again
+            }
+        }
+        stored = compile(text, name != null ? name : "Script" + key.substring(0, 16), key, builderInterface, parent);
+        write(file, stored);
+        return stored.define(parent);
+    }
+
+    private static String keyOf(String text, @Nullable String name, Class<?> modelType, @Nullable Class<?> builderInterface) {
+        MessageDigest digest = sha256();
+        digest.update(Integer.toString(FORMAT).getBytes(StandardCharsets.UTF_8));
+        digest.update(GroovySystem.getVersion().getBytes(StandardCharsets.UTF_8));
+        for (Class<?> type : schemaTypesOf(modelType, builderInterface))
+            digest.update(fingerprint(type));
+        digest.update(String.valueOf(name).getBytes(StandardCharsets.UTF_8));
+        digest.update(String.valueOf(builderInterface != null ? builderInterface.getName() : null).getBytes(StandardCharsets.UTF_8));
+        digest.update(text.getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * The types whose build the compiled script depends on: the DSL types reachable from the model type through
+     * their hierarchies and fields, and the Builder interface, ordered by name.
+     */
+    private static Collection<Class<?>> schemaTypesOf(Class<?> modelType, @Nullable Class<?> builderInterface) {
+        Map<String, Class<?>> types = new TreeMap<>();
+        Deque<Class<?>> pending = new ArrayDeque<>();
+        pending.push(modelType);
+        while (!pending.isEmpty()) {
+            Class<?> type = pending.pop();
+            if (types.putIfAbsent(type.getName(), type) != null)
+                continue;
+            addDslTypes(type.getGenericSuperclass(), pending);
+            for (Field field : ClassSchema.of(type).getDeclaredFields())
+                addDslTypes(field.getGenericType(), pending);
+        }
+        if (builderInterface != null)
+            types.put(builderInterface.getName(), builderInterface);
+        return types.values();
+    }
+
+    private static void addDslTypes(Type type, Deque<Class<?>> pending) {
+        if (type instanceof Class<?> clazz && DslHelper.isDslType(clazz)) {
+            pending.push(clazz);
+        } else if (type instanceof ParameterizedType parameterized) {
+            for (Type argument : parameterized.getActualTypeArguments())
+                addDslTypes(argument, pending);
+        } else if (type instanceof WildcardType wildcard) {
+            for (Type bound : wildcard.getUpperBounds())
+                addDslTypes(bound, pending);
+        }
+    }
+
+    /**
+     * Identifies the build of a type: the size and modification time of its jar, or, for a class directory,
+     * the content of its class file.
+     */
+    private static byte[] fingerprint(Class<?> type) {
+        CodeSource codeSource = type.getProtectionDomain().getCodeSource();
+        try {
+            if (codeSource != null && codeSource.getLocation() != null && "file".equals(codeSource.getLocation().getProtocol())) {
+                Path location = Paths.get(codeSource.getLocation().toURI());
+                if (Files.isRegularFile(location))
+                    return (location + "|" + Files.size(location) + "|" + Files.getLastModifiedTime(location).toMillis())
+                            .getBytes(StandardCharsets.UTF_8);
+            }
+            URL classFile = type.getResource(type.getName().substring(type.getName().lastIndexOf('.') + 1) + ".class");
+            if (classFile != null)
+                try (InputStream stream = classFile.openStream()) {
+                    return sha256().digest(stream.readAllBytes());
+                }
+        } catch (IOException | URISyntaxException | IllegalArgumentException e) {
+            // no usable fingerprint, fall through to the type name alone
+        }
+        return type.getName().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /** Returns the internal names of the classes the given bytecode refers to, except for the script's own classes. */
+    private static Collection<String> referencedClassesOf(Map<String, byte[]> bytecode) {
+        Set<String> references = new TreeSet<>();
+        Remapper collector = new Remapper() {
+            @Override
+            public String map(String internalName) {
+                references.add(internalName);
+                return internalName;
+            }
+        };
+        for (byte[] bytes : bytecode.values())
+            new ClassReader(bytes).accept(new ClassRemapper(new ClassVisitor(CompilerConfiguration.ASM_API_VERSION) {}, collector), ClassReader.SKIP_FRAMES);
+        for (String className : bytecode.keySet())
+            references.remove(className.replace('.', '/'));
+        return references;
+    }
+
+    /**
+     * Fingerprints the referenced classes as the given class loader resolves them. Classes of the JDK are covered
+     * by the Java version rather than one by one, and classes that cannot be resolved by their absence.
+     */
+    private static String fingerprintOfReferences(Collection<String> references, ClassLoader loader) {
+        MessageDigest digest = sha256();
+        digest.update(Runtime.version().toString().getBytes(StandardCharsets.UTF_8));
+        for (String reference : references) {
+            digest.update(reference.getBytes(StandardCharsets.UTF_8));
+            Class<?> type;
+            try {
+                type = Class.forName(reference.replace('/', '.'), false, loader);
+            } catch (ClassNotFoundException | LinkageError e) {
+                digest.update((byte) 0);
+                continue;
+            }
+            ClassLoader typeLoader = type.getClassLoader();
+            if (typeLoader != null && typeLoader != ClassLoader.getPlatformClassLoader())
+                digest.update(fingerprint(type));
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static StoredScript compile(String text, String name, String key, @Nullable Class<?> builderInterface, ClassLoader parent) {
+        CompilerConfiguration compilerConfiguration = CompiledScriptCache.createCompilerConfiguration(builderInterface);
+        CompilationUnit unit = new CompilationUnit(compilerConfiguration, null, new GroovyClassLoader(parent, compilerConfiguration));
+        unit.addSource(name, text);
+        try {
+            unit.compile(Phases.CLASS_GENERATION);
+        } catch (CompilationFailedException e) {
+            throw builderInterface != null ? CompiledScriptCache.staticCompilationFailed(name, builderInterface, e) : e;
+        }
+        String mainClass = unit.getAST().getClasses().stream()
+                .filter(ClassNode::isScript)
+                .map(ClassNode::getName)
+                .findFirst()
+                .orElseThrow(() -> new KlumModelException("Configuration text " + name + " does not contain a script"));
+        Map<String, byte[]> bytecode = new HashMap<>();
+        for (GroovyClass groovyClass : unit.getClasses())
+            bytecode.put(groovyClass.getName(), groovyClass.getBytes());
+        Collection<String> references = referencedClassesOf(bytecode);
+        return new StoredScript(key, mainClass, references, fingerprintOfReferences(references, parent), bytecode);
+    }
+
+    private static @Nullable StoredScript read(Path file, String key, ClassLoader parent) {
+        if (!Files.isRegularFile(file))
+            return null;
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+            if (in.readInt() != FORMAT || !in.readUTF().equals(key))
+                return null;
+            String mainClass = in.readUTF();
+            List<String> references = new ArrayList<>();
+            int referenceCount = in.readInt();
+            for (int i = 0; i < referenceCount; i++)
+                references.add(in.readUTF());
+            String referencesFingerprint = in.readUTF();
+            if (!referencesFingerprint.equals(fingerprintOfReferences(references, parent)))
+                return null;
+            int count = in.readInt();
+            Map<String, byte[]> bytecode = new HashMap<>();
+            for (int i = 0; i < count; i++) {
+                String className = in.readUTF();
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                bytecode.put(className, bytes);
+            }
+            return bytecode.containsKey(mainClass)
+                    ? new StoredScript(key, mainClass, references, referencesFingerprint, bytecode)
+                    : null;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private void write(Path file, StoredScript script) {
+        Path temp = null;
+        try {
+            Files.createDirectories(directory);
+            temp = Files.createTempFile(directory, script.key, ".tmp");
+            try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(temp))) {
+                out.writeInt(FORMAT);
+                out.writeUTF(script.key);
+                out.writeUTF(script.mainClass);
+                out.writeInt(script.references.size());
+                for (String reference : script.references)
+                    out.writeUTF(reference);
+                out.writeUTF(script.referencesFingerprint);
+                out.writeInt(script.bytecode.size());
+                for (Map.Entry<String, byte[]> entry : script.bytecode.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeInt(entry.getValue().length);
+                    out.write(entry.getValue());
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // the next JVM compiles the script again
+            deleteQuietly(temp);
+        }
+    }
+
+    private static void deleteQuietly(@Nullable Path file) {
+        if (file == null)
+            return;
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // nothing left to do, a stale temporary file is never read
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported by this JVM", e);
+        }
+    }
+
+    private record StoredScript(String key, String mainClass, Collection<String> references, String referencesFingerprint,
+                                Map<String, byte[]> bytecode) {
+
+        /**
+         * Defines all classes of the script, so that bytecode which no longer fits its parent class loader fails
+         * here with a {@link LinkageError} rather than when the script runs.
+         */
+        @SuppressWarnings("unchecked")
+        Class<? extends DelegatingScript> define(ClassLoader parent) {
+            StoredScriptClassLoader loader = new StoredScriptClassLoader(parent, bytecode);
+            try {
+                for (String className : bytecode.keySet())
+                    loader.loadClass(className);
+                return (Class<? extends DelegatingScript>) loader.loadClass(mainClass);
+            } catch (ClassNotFoundException e) {
+                throw new IllegalStateException("Stored script does not contain its main class " + mainClass, e);
+            }
+        }
+    }
+
+    /** Defines the classes of a single stored script. */
+    private static final class StoredScriptClassLoader extends ClassLoader {
+        private final Map<String, byte[]> bytecode;
+
+        private StoredScriptClassLoader(ClassLoader parent, Map<String, byte[]> bytecode) {
+            super(parent);
+            this.bytecode = bytecode;
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            byte[] bytes = bytecode.get(name);
+            if (bytes == null)
+                throw new ClassNotFoundException(name);
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+}
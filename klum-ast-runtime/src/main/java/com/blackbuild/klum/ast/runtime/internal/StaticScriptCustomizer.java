@@ -0,0 +1,80 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.ast.runtime.internal;
+
+import com.blackbuild.klum.ast.runtime.generated.GeneratedScriptSupport;
+import org.codehaus.groovy.ast.ClassHelper;
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.ast.MethodNode;
+import org.codehaus.groovy.ast.Parameter;
+import org.codehaus.groovy.ast.expr.ArgumentListExpression;
+import org.codehaus.groovy.ast.expr.CastExpression;
+import org.codehaus.groovy.ast.expr.ClosureExpression;
+import org.codehaus.groovy.ast.expr.MethodCallExpression;
+import org.codehaus.groovy.ast.expr.StaticMethodCallExpression;
+import org.codehaus.groovy.ast.expr.VariableExpression;
+import org.codehaus.groovy.ast.stmt.ReturnStatement;
+import org.codehaus.groovy.ast.stmt.Statement;
+import org.codehaus.groovy.classgen.GeneratorContext;
+import org.codehaus.groovy.control.CompilePhase;
+import org.codehaus.groovy.control.SourceUnit;
+import org.codehaus.groovy.control.customizers.CompilationCustomizer;
+
+/**
+ * Prepares a configuration script for static compilation against the Builder interface of its model.
+ *
+ * <p>The body of the script's {@code run} method is moved into a closure, which is passed to
+ * {@link GeneratedScriptSupport#$klum$configure} together with the script's delegate,
+ * cast to the Builder interface. The type checker then resolves DSL calls against that interface.</p>
+ */
+final class StaticScriptCustomizer extends CompilationCustomizer {
+
+    private static final ClassNode SCRIPT_SUPPORT = ClassHelper.make(GeneratedScriptSupport.class);
+
+    private final ClassNode builderInterface;
+
+    StaticScriptCustomizer(Class<?> builderInterface) {
+        super(CompilePhase.CONVERSION);
+        this.builderInterface = ClassHelper.make(builderInterface);
+    }
+
+    @Override
+    public void call(SourceUnit source, GeneratorContext context, ClassNode classNode) {
+        if (!classNode.isScript())
+            return;
+        MethodNode run = classNode.getMethod("run", Parameter.EMPTY_ARRAY);
+        if (run == null || run.getCode() == null)
+            return;
+
+        Statement body = run.getCode();
+        ClosureExpression configuration = new ClosureExpression(Parameter.EMPTY_ARRAY, body);
+        configuration.setSourcePosition(body);
+        CastExpression builder = new CastExpression(builderInterface,
+                new MethodCallExpression(VariableExpression.THIS_EXPRESSION, "getDelegate", ArgumentListExpression.EMPTY_ARGUMENTS));
+        ReturnStatement delegation = new ReturnStatement(new StaticMethodCallExpression(SCRIPT_SUPPORT, "$klum$configure",
+                new ArgumentListExpression(builder, configuration)));
+        delegation.setSourcePosition(body);
+        run.setCode(delegation);
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.ast.runtime.internal;
+
+import com.blackbuild.klum.ast.FieldType;
+import com.blackbuild.klum.ast.runtime.KlumModelException;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Structural hash codes of unkeyed DSL Objects.
+ *
+ * <p>The hash covers the fields compared by the generated {@code equals}, except Owner, Link and builder-only
+ * fields, so it never follows a reference out of the composition tree and stays finite for cyclic models.
+ * It is computed once per completed model during Materialization, children before their containers, and
+ * cached in the companion of the model.</p>
+ *
+ * <p>Values are hashed in a way that does not depend on their concrete container classes: lists in order,
+ * sets and maps independent of their iteration order, numbers and character sequences by value and enums by
+ * name, so equal models hash alike regardless of how and in which JVM they were created.</p>
+ *
+ * <p>This type is public only so that {@link com.blackbuild.klum.ast.runtime.generated.GeneratedModelSupport} can
+ * call it from the {@code equals} and {@code hashCode} methods generated into models of arbitrary packages. It is
+ * not supported client API.</p>
+ */
+public final class StructuralHashes {
+
+    private static final Set<FieldType> UNHASHED_FIELD_TYPES =
+            EnumSet.of(FieldType.TRANSIENT, FieldType.LINK, FieldType.OPTIONAL_LINK, FieldType.BUILDER);
+
+    private static final ClassValue<HashSchema> SCHEMAS = new ClassValue<>() {
+        @Override
+        protected HashSchema computeValue(Class<?> type) {
+            return new HashSchema(type);
+        }
+    };
+
+    private StructuralHashes() {
+        // static only
+    }
+
+    /**
+     * Returns the structural hash code of a completed model, using the cached value if present.
+     * @param model the completed model
+     * @return the structural hash code
+     */
+    public static int hashCodeOf(Object model) {
+        HashSchema schema = SCHEMAS.get(model.getClass());
+        Integer cached = cachedHashCode(schema, model);
+        return cached != null ? cached : schema.hash(field -> schema.read(field, model));
+    }
+
+    private static Integer cachedHashCode(HashSchema schema, Object model) {
+        return schema.read(schema.companion, model) instanceof KlumModelProxy proxy ? proxy.getStructuralHashCode() : null;
+    }
+
+    /**
+     * Returns whether two completed models of the same class carry different cached structural hashes,
+     * which proves that the generated {@code equals} would not consider them equal.
+     * @param model the model whose {@code equals} is called
+     * @param other the object to compare with
+     * @return true only if both structural hashes are known and differ
+     */
+    public static boolean differ(Object model, Object other) {
+        if (other == null || other == model || other.getClass() != model.getClass())
+            return false;
+        HashSchema schema = SCHEMAS.get(model.getClass());
+        Integer hash = cachedHashCode(schema, model);
+        Integer otherHash = hash != null ? cachedHashCode(schema, other) : null;
+        return otherHash != null && !hash.equals(otherHash);
+    }
+
+    /**
+     * Computes and caches the structural hash of a freshly allocated model whose relationships are not assigned yet.
+     * Keyed models get one as well, it is not their hash code, but still lets {@code equals} reject them early.
+     */
+    static void cacheHashCode(InternalKlumBuilder<?> builder, Object model) {
+        HashSchema schema = SCHEMAS.get(model.getClass());
+        if (!(schema.read(schema.companion, model) instanceof KlumModelProxy proxy))
+            return;
+        proxy.setStructuralHashCode(schema.hash(field -> DslHelper.isRelationship(field)
+                ? builder.getInstanceAttribute(field.getName())
+                : schema.read(field, model)));
+    }
+
+    private static int hashValue(Object value, Class<?> declaredType) {
+        if (value == null)
+            return 0;
+        if (value instanceof InternalKlumBuilder<?> builder)
+            return hashBuilder(builder);
+        if (value instanceof Collection<?> collection)
+            return isSet(collection, declaredType) ? hashUnordered(collection) : hashOrdered(collection);
+        if (value instanceof Map<?, ?> map)
+            return hashMap(map);
+        if (value.getClass().isArray())
+            return hashArray(value);
+        if (value instanceof Number number)
+            return Double.hashCode(number.doubleValue());
+        if (value instanceof CharSequence text)
+            return text.toString().hashCode();
+        if (value instanceof Enum<?> constant)
+            return constant.name().hashCode();
+        return value.hashCode();
+    }
+
+    private static int hashBuilder(InternalKlumBuilder<?> builder) {
+        if (builder.getCompletedModel() == null)
+            builder.allocateModel();
+        Object model = builder.getCompletedModel();
+        return model != null ? model.hashCode() : 0;
+    }
+
+    private static boolean isSet(Collection<?> collection, Class<?> declaredType) {
+        return declaredType != null ? Set.class.isAssignableFrom(declaredType) : collection instanceof Set;
+    }
+
+    private static int hashOrdered(Collection<?> collection) {
+        int result = 1;
+        for (Object member : collection)
+            result = 31 * result + hashValue(member, null);
+        return result;
+    }
+
+    // Builder collections may still contain members that become equal, and thus collapse, in the completed set.
+    // Summing distinct hashes only keeps the hash independent of that.
+    private static int hashUnordered(Collection<?> collection) {
+        Set<Integer> hashes = new HashSet<>();
+        int result = 0;
+        for (Object member : collection) {
+            int hash = hashValue(member, null);
+            if (hashes.add(hash))
+                result += hash;
+        }
+        return result;
+    }
+
+    private static int hashMap(Map<?, ?> map) {
+        int result = 0;
+        for (Map.Entry<?, ?> entry : map.entrySet())
+            result += hashValue(entry.getKey(), null) ^ hashValue(entry.getValue(), null);
+        return result;
+    }
+
+    private static int hashArray(Object array) {
+        int result = 1;
+        for (int i = 0; i < Array.getLength(array); i++)
+            result = 31 * result + hashValue(Array.get(array, i), null);
+        return result;
+    }
+
+    /** The hashed fields of one model implementation, in hierarchy order. */
+    private static final class HashSchema {
+        private final Field companion;
+        private final List<Field> fields = new ArrayList<>();
+
+        private HashSchema(Class<?> type) {
+            companion = DslHelper.getField(type, KlumObjectCompanion.NAME_IN_MODEL)
+                    .orElseThrow(() -> new KlumModelException("Completed DSL Object " + type.getName() + " has no companion"));
+            makeAccessible(companion);
+            for (Class<?> layer : ClassSchema.of(type).getDslHierarchy())
+                for (Field field : ClassSchema.of(layer).getDeclaredFields())
+                    if (isHashed(field)) {
+                        makeAccessible(field);
+                        fields.add(field);
+                    }
+        }
+
+        private static boolean isHashed(Field field) {
+            if (Modifier.isStatic(field.getModifiers()) || Modifier.isTransient(field.getModifiers())
+                    || field.isSynthetic() || field.getName().startsWith("$") || DslHelper.isOwner(field))
+                return false;
+            return !UNHASHED_FIELD_TYPES.contains(DslHelper.getKlumFieldType(field));
+        }
+
+        private static void makeAccessible(Field field) {
+            if (!field.trySetAccessible())
+                throw new KlumModelException("Cannot access field " + field);
+        }
+
+        private int hash(Function<Field, Object> values) {
+            int result = 1;
+            for (Field field : fields)
+                result = 31 * result + hashValue(values.apply(field), field.getType());
+            return result;
+        }
+
+        private Object read(Field field, Object model) {
+            try {
+                return field.get(model);
+            } catch (IllegalAccessException exception) {
+                throw new KlumModelException("Could not read field " + field, exception);
+            }
+        }
+    }
+}
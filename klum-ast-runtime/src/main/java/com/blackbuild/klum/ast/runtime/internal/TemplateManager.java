@@ -110,6 +110,30 @@ public class TemplateManager {
         return new HashMap<>(templates);
     }
 
+    /**
+     * Returns the templates active on the current thread, without registering a manager for the thread.
+     * Together with {@link #withCapturedTemplates(Map, Supplier)}, this carries templates over to worker threads.
+     */
+    static Map<Class<?>, Object> captureTemplates() {
+        TemplateManager manager = INSTANCE.get();
+        return manager != null ? manager.getCurrentTemplates() : Map.of();
+    }
+
+    static <T> T withCapturedTemplates(Map<Class<?>, Object> capturedTemplates, Supplier<T> action) {
+        if (capturedTemplates.isEmpty())
+            return action.get();
+
+        TemplateManager manager = getInstance();
+        Map<Class<?>, ?> oldTemplates = new HashMap<>(manager.templates);
+        try {
+            manager.addTemplates(capturedTemplates);
+            return action.get();
+        } finally {
+            manager.setTemplates(oldTemplates);
+            manager.deregister();
+        }
+    }
+
     /**
      * Executes the given closure with the given template as the template for the given type.
      * This means that all objects of the given type created in the scope of the closure will use the given template,
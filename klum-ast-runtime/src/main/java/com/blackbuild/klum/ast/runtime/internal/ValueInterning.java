@@ -0,0 +1,196 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.ast.runtime.internal;
+
+import com.blackbuild.klum.ast.FieldType;
+import com.blackbuild.klum.ast.runtime.KlumModelException;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Optional sharing of equal values between the completed models of one Materialization.
+ *
+ * <p>After all models of a graph are allocated, the immutable values of their value fields are replaced by an
+ * equal value already held by another model of the same graph. Models created from the same templates thus keep
+ * only one copy of their identical labels, lists or maps.</p>
+ *
+ * <p>This deliberately does not deduplicate DSL subtrees, even structurally equal ones: every occurrence of a
+ * model keeps its own identity and companion, including its model and construction paths and its metadata,
+ * which a shared instance could not provide. Only plain values are interned.</p>
+ *
+ * <p>A value is immutable if it is a string, or a collection or map snapshot whose members, keys and values are
+ * strings, boxed primitives, enum constants, null or such snapshots themselves. Snapshots holding any other
+ * member, like a date or a mutable list copied into a map, are never shared, since that member could be changed
+ * through one model and show up in another. Only values of the same class are shared, and sorted collections and
+ * maps only if they use the same comparator. Transient fields and the values of Templates are never shared.</p>
+ *
+ * <p>Interning is disabled by default and can be enabled with the system property {@value #ENABLED_PROPERTY}
+ * or {@link #setEnabled(boolean)}.</p>
+ *
+ * <p>This type is public only as the backend of {@link com.blackbuild.klum.ast.runtime.KlumModelInterning}, the
+ * client switch for interning. It is not supported client API itself.</p>
+ */
+public final class ValueInterning {
+
+    public static final String ENABLED_PROPERTY = "klum.interning";
+
+    private static final ClassValue<List<Field>> SHAREABLE_FIELDS = new ClassValue<>() {
+        @Override
+        protected List<Field> computeValue(Class<?> type) {
+            return shareableFieldsOf(type);
+        }
+    };
+
+    private static final Set<Class<?>> IMMUTABLE_TYPES = Set.of(String.class, Boolean.class, Character.class,
+            Byte.class, Short.class, Integer.class, Long.class, Float.class, Double.class);
+
+    private static final LongAdder SHARED_COUNT = new LongAdder();
+    private static volatile boolean enabled = Boolean.getBoolean(ENABLED_PROPERTY);
+
+    private ValueInterning() {
+        // static only
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        ValueInterning.enabled = enabled;
+    }
+
+    /** Returns the number of values that were replaced by an equal shared instance. */
+    public static long getSharedCount() {
+        return SHARED_COUNT.sum();
+    }
+
+    /**
+     * Replaces the values of the models of a freshly allocated graph by equal values of earlier models.
+     * @param graph the Builders of the graph, whose models are allocated
+     */
+    static void intern(List<InternalKlumBuilder<?>> graph) {
+        Map<ValueKey, Object> values = new HashMap<>();
+        int shared = 0;
+        for (InternalKlumBuilder<?> builder : graph) {
+            Object model = builder.getCompletedModel();
+            if (model == null || builder.isTemplate())
+                continue;
+            for (Field field : SHAREABLE_FIELDS.get(model.getClass())) {
+                Object value = read(field, model);
+                if (!isShareable(value))
+                    continue;
+                Object canonical = values.putIfAbsent(new ValueKey(value), value);
+                if (canonical != null && canonical != value) {
+                    write(field, model, canonical);
+                    shared++;
+                }
+            }
+        }
+        SHARED_COUNT.add(shared);
+    }
+
+    private static boolean isShareable(Object value) {
+        return value instanceof String || isImmutableSnapshot(value);
+    }
+
+    /**
+     * Snapshots are only shallowly immutable, so a collection or map is only shared if all its members, and
+     * for maps all keys, are immutable as well.
+     */
+    private static boolean isImmutableSnapshot(Object value) {
+        if (value == null || !CompactCollections.isCompact(value) && !OwnedCollections.isFrozen(value))
+            return false;
+        if (value instanceof Map<?, ?> map) {
+            for (Map.Entry<?, ?> entry : map.entrySet())
+                if (!isImmutable(entry.getKey()) || !isImmutable(entry.getValue()))
+                    return false;
+            return true;
+        }
+        for (Object member : (Collection<?>) value)
+            if (!isImmutable(member))
+                return false;
+        return true;
+    }
+
+    private static boolean isImmutable(Object member) {
+        return member == null || IMMUTABLE_TYPES.contains(member.getClass()) || member instanceof Enum<?>
+                || isImmutableSnapshot(member);
+    }
+
+    private static List<Field> shareableFieldsOf(Class<?> type) {
+        List<Field> fields = new ArrayList<>();
+        for (Class<?> layer : ClassSchema.of(type).getDslHierarchy())
+            for (Field field : ClassSchema.of(layer).getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || field.isSynthetic() || field.getName().startsWith("$")
+                        || Modifier.isTransient(field.getModifiers()) || DslHelper.isOwner(field)
+                        || DslHelper.isRelationship(field))
+                    continue;
+                FieldType fieldType = DslHelper.getKlumFieldType(field);
+                if (fieldType != FieldType.TRANSIENT && fieldType != FieldType.BUILDER && field.trySetAccessible())
+                    fields.add(field);
+            }
+        return List.copyOf(fields);
+    }
+
+    private static Object read(Field field, Object model) {
+        try {
+            return field.get(model);
+        } catch (IllegalAccessException exception) {
+            throw new KlumModelException("Could not read field " + field, exception);
+        }
+    }
+
+    private static void write(Field field, Object model, Object value) {
+        try {
+            field.set(model, value);
+        } catch (IllegalAccessException exception) {
+            throw new KlumModelException("Could not write field " + field, exception);
+        }
+    }
+
+    /** Equality of values of the same class and, for sorted values, the same comparator. */
+    private record ValueKey(Class<?> type, Object comparator, Object value) {
+        private ValueKey(Object value) {
+            this(value.getClass(), comparatorOf(value), value);
+        }
+
+        private static Object comparatorOf(Object value) {
+            if (value instanceof SortedSet<?> sortedSet)
+                return sortedSet.comparator();
+            if (value instanceof SortedMap<?, ?> sortedMap)
+                return sortedMap.comparator();
+            return null;
+        }
+    }
+}
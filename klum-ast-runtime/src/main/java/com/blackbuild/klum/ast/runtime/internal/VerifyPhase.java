@@ -39,6 +39,11 @@ public class VerifyPhase extends AbstractPhaseAction {
         super(DefaultKlumPhase.VERIFY);
     }
 
+    @Override
+    public boolean isStateless() {
+        return true;
+    }
+
     @Override
     protected void doExecute() {
         KlumObjectSupport.of(PhaseDriver.getInstance().getRootObject()).getValidation().verify();
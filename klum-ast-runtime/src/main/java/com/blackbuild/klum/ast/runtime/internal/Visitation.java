@@ -0,0 +1,118 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.ast.runtime.internal;
+
+import com.blackbuild.klum.ast.runtime.KlumModelException;
+import com.blackbuild.klum.ast.runtime.internal.process.ConstructionSession;
+import com.blackbuild.klum.ast.runtime.internal.process.PhaseDriver;
+
+import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Visited state of a single traversal.
+ *
+ * <p>Builders and completed models of the Construction session active on the current thread are confined to that
+ * thread, so they carry the epoch of the last traversal that reached them, and checking and marking one is a field
+ * compare. Every other object, for example a completed model linked from an earlier session, goes to an identity
+ * set that is only allocated when the first such object is marked. Traversals started while another one is running
+ * on the same thread use the identity set as well, so they cannot overwrite the marks of the outer traversal.</p>
+ *
+ * <p>This type is public only because {@code CompositionTraversal} in {@code layer3} opens one for each traversal
+ * it runs. It is not supported client API.</p>
+ */
+public final class Visitation implements AutoCloseable {
+
+    private static final ClassValue<Optional<Field>> COMPANION_FIELDS = new ClassValue<>() {
+        @Override
+        protected Optional<Field> computeValue(Class<?> type) {
+            return DslHelper.getField(type, KlumObjectCompanion.NAME_IN_MODEL).filter(Field::trySetAccessible);
+        }
+    };
+
+    private final ConstructionSession session;
+    private final int epoch;
+    private Set<Object> visited;
+
+    private Visitation(ConstructionSession session, int epoch) {
+        this.session = session;
+        this.epoch = epoch;
+    }
+
+    /**
+     * Starts a traversal, which must be closed when done.
+     * @return the visited state of the new traversal
+     */
+    public static Visitation begin() {
+        int epoch = PhaseDriver.claimVisitationEpoch();
+        return new Visitation(epoch != 0 ? PhaseDriver.getActiveConstructionSession() : null, epoch);
+    }
+
+    /**
+     * Marks an object as visited.
+     * @param element the object reached by the traversal
+     * @return true if the object had not been visited by this traversal before
+     */
+    public boolean markVisited(Object element) {
+        if (session != null) {
+            if (element instanceof InternalKlumBuilder<?> builder && builder.$isInActiveConstructionSession(session))
+                return builder.markVisited(epoch);
+            KlumModelProxy companion = confinedCompanionOf(element);
+            if (companion != null)
+                return companion.markVisited(epoch);
+        }
+        if (visited == null)
+            visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        return visited.add(element);
+    }
+
+    private KlumModelProxy confinedCompanionOf(Object element) {
+        if (!DslHelper.isDslObject(element))
+            return null;
+        Field field = COMPANION_FIELDS.get(element.getClass()).orElse(null);
+        if (field == null)
+            return null;
+        return readCompanion(field, element) instanceof KlumModelProxy companion && companion.isConfinedTo(session)
+                ? companion
+                : null;
+    }
+
+    // the field was made accessible when it was cached, so it is read without another access check
+    private static Object readCompanion(Field field, Object element) {
+        try {
+            return field.get(element);
+        } catch (IllegalAccessException exception) {
+            throw new KlumModelException("Could not read field " + field, exception);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (epoch != 0)
+            PhaseDriver.releaseVisitationEpoch();
+    }
+}
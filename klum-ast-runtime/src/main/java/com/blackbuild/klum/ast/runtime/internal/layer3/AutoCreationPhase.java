@@ -48,10 +48,23 @@ import static java.lang.String.format;
 
 public class AutoCreationPhase extends BuilderVisitingPhaseAction {
 
+    private static final Predicate<Class<?>> APPLICABLE = PhaseApplicability.perType(type ->
+            PhaseApplicability.declares(type, AutoCreate.class));
+
     public AutoCreationPhase() {
         super(DefaultKlumPhase.AUTO_CREATE);
     }
 
+    @Override
+    public boolean isStateless() {
+        return true;
+    }
+
+    @Override
+    public boolean appliesTo(Class<?> modelType) {
+        return APPLICABLE.test(modelType);
+    }
+
     @Override
     protected void doVisit(@NotNull String path, @NotNull InternalKlumBuilder<?> element, @Nullable Object container, @Nullable String nameOfFieldInContainer) {
         withCurrentTemplates(element, () -> {
@@ -27,17 +27,33 @@ import com.blackbuild.klum.ast.runtime.DefaultKlumPhase;
 import com.blackbuild.klum.ast.runtime.BuilderVisitingPhaseAction;
 import com.blackbuild.klum.ast.runtime.internal.InternalKlumBuilder;
 import com.blackbuild.klum.ast.runtime.internal.LifecycleHelper;
+import com.blackbuild.klum.ast.runtime.internal.PhaseApplicability;
 import com.blackbuild.klum.ast.layer3.AutoLink;
 import com.blackbuild.klum.ast.layer3.LinkTo;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.function.Predicate;
+
 public class AutoLinkPhase extends BuilderVisitingPhaseAction {
 
+    private static final Predicate<Class<?>> APPLICABLE = PhaseApplicability.perType(type ->
+            PhaseApplicability.declares(type, LinkTo.class) || PhaseApplicability.declares(type, AutoLink.class));
+
     public AutoLinkPhase() {
         super(DefaultKlumPhase.AUTO_LINK);
     }
 
+    @Override
+    public boolean isStateless() {
+        return true;
+    }
+
+    @Override
+    public boolean appliesTo(Class<?> modelType) {
+        return APPLICABLE.test(modelType);
+    }
+
     @Override
     protected void doVisit(@NotNull String path, @NotNull InternalKlumBuilder<?> element, @Nullable Object container, @Nullable String nameOfFieldInContainer) {
         ClusterModel.getFieldsAnnotatedWith(element, LinkTo.class)
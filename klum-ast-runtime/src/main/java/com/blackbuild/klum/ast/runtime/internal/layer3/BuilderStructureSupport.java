@@ -27,11 +27,8 @@ import com.blackbuild.klum.ast.runtime.internal.InternalKlumBuilder;
 import com.blackbuild.klum.ast.runtime.KlumSchemaException;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 
 /** Internal composition support for mutable Builders before materialization. */
 public final class BuilderStructureSupport {
@@ -50,13 +47,13 @@ public final class BuilderStructureSupport {
 
     public static List<Object> getOwnerHierarchy(InternalKlumBuilder<?> leaf) {
         List<Object> result = new ArrayList<>();
-        Set<Object> seen = Collections.newSetFromMap(new IdentityHashMap<>());
         Object current = leaf;
-        while (current instanceof InternalKlumBuilder<?>) {
-            if (!seen.add(current))
-                throw new KlumSchemaException("Object " + current + " has an owner cycle");
+        while (current instanceof InternalKlumBuilder<?> builder) {
             result.add(current);
-            current = ((InternalKlumBuilder<?>) current).getSingleOwner();
+            current = builder.getSingleOwner();
+            // the member at half the length moves at half speed and meets the head inside any cycle
+            if (current == result.get(result.size() / 2))
+                throw new KlumSchemaException("Object " + current + " has an owner cycle");
         }
         return List.copyOf(result);
     }
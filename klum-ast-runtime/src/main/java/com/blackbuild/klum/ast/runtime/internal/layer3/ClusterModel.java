@@ -23,6 +23,7 @@
  */
 package com.blackbuild.klum.ast.runtime.internal.layer3;
 
+import com.blackbuild.klum.ast.runtime.internal.ClassSchema;
 import com.blackbuild.klum.ast.runtime.internal.DslHelper;
 import com.blackbuild.klum.ast.runtime.internal.InternalKlumBuilder;
 import groovy.lang.Closure;
@@ -360,13 +361,7 @@ public class ClusterModel {
      * @return An Optional containing the Field if found, otherwise an empty Optional.
      */
     public static Optional<Field> getField(Class<?> containerType, String fieldName) {
-        while (containerType != null) {
-            Optional<Field> field = Arrays.stream(containerType.getDeclaredFields()).filter(it -> it.getName().equals(fieldName)).findFirst();
-            if (field.isPresent())
-                return field;
-            containerType = containerType.getSuperclass();
-        }
-        return Optional.empty();
+        return ClassSchema.of(containerType).getField(fieldName);
     }
 
     /**
@@ -23,19 +23,30 @@
  */
 package com.blackbuild.klum.ast.runtime.internal.layer3;
 
+import com.blackbuild.klum.ast.runtime.internal.ClassSchema;
 import com.blackbuild.klum.ast.runtime.internal.DslHelper;
+import com.blackbuild.klum.ast.runtime.internal.Visitation;
 import com.blackbuild.klum.ast.runtime.KlumException;
+import com.blackbuild.klum.ast.runtime.internal.process.PhaseDriver;
+import org.jetbrains.annotations.Nullable;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.IdentityHashMap;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.Set;
 
-/** Internal identity-cycle-safe traversal of composition fields. */
+/**
+ * Internal identity-cycle-safe traversal of composition fields.
+ *
+ * <p>The traversal keeps its pending work on an explicit stack instead of the call stack, so the depth of a
+ * model is only limited by the heap. Elements are visited in depth-first preorder, the composition properties
+ * of an element are read after it has been visited, and the structural edges of a property are recorded just
+ * before descending into it.</p>
+ */
 public final class CompositionTraversal {
 
     private CompositionTraversal() {
@@ -43,53 +54,163 @@ public final class CompositionTraversal {
     }
 
     public static void visit(Object root, ModelVisitor visitor, String rootPath) {
-        doVisit(root, visitor, Collections.newSetFromMap(new IdentityHashMap<>()), rootPath, null, null);
+        try (Visitation visitation = Visitation.begin()) {
+            new Traversal(visitor, visitation, PhaseDriver.getStructuralEdges()).run(root, rootPath);
+        }
     }
 
-    static Map<String, Object> getCompositionProperties(Object container) {
-        Map<String, Object> result = new LinkedHashMap<>();
+    /** Returns the composition fields of the container by name; fields of subclasses hide those of their superclasses. */
+    static Map<String, Field> getCompositionProperties(Object container) {
+        Map<String, Field> result = new LinkedHashMap<>();
         for (Class<?> type = container.getClass(); type != null; type = type.getSuperclass()) {
-            for (Field field : type.getDeclaredFields()) {
+            for (Field field : ClassSchema.of(type).getDeclaredFields()) {
                 if (field.getName().contains("$") || Modifier.isStatic(field.getModifiers()) || field.isSynthetic()
                         || DslHelper.isOwner(field) || DslHelper.isLink(field))
                     continue;
-                result.put(field.getName(), DslHelper.getFieldValue(container, field.getName()));
+                result.putIfAbsent(field.getName(), field);
             }
         }
         return result;
     }
 
-    private static void doVisit(Object element, ModelVisitor visitor, Set<Object> alreadyVisited, String path,
-                                Object container, String nameOfFieldInContainer) {
-        if (element == null)
-            return;
-        if (element instanceof Collection<?> collection) {
-            int index = 0;
-            for (Object member : collection)
-                doVisit(member, visitor, alreadyVisited, path + "[" + index++ + "]", container, nameOfFieldInContainer);
-            return;
+    private static final class Traversal {
+        private final ModelVisitor visitor;
+        private final @Nullable StructuralEdges edges;
+        private final Visitation visitation;
+        private final Deque<Frame> stack = new ArrayDeque<>();
+
+        private Traversal(ModelVisitor visitor, Visitation visitation, @Nullable StructuralEdges edges) {
+            this.visitor = visitor;
+            this.visitation = visitation;
+            this.edges = edges;
         }
-        if (element instanceof Map<?, ?> map) {
-            for (Map.Entry<?, ?> entry : map.entrySet())
-                doVisit(entry.getValue(), visitor, alreadyVisited, path + "." + StructuralPath.toGPath(entry.getKey()), container, nameOfFieldInContainer);
-            return;
+
+        private void run(Object root, String rootPath) {
+            enter(root, rootPath, null, null);
+            while (!stack.isEmpty())
+                if (!stack.peek().next())
+                    stack.pop();
+        }
+
+        /** Visits a single value, or schedules the members of a collection or map, which share its container. */
+        private void enter(Object element, String path, Object container, String nameOfFieldInContainer) {
+            if (element == null)
+                return;
+            if (element instanceof Collection<?> collection) {
+                stack.push(new CollectionFrame(collection.iterator(), path, container, nameOfFieldInContainer));
+                return;
+            }
+            if (element instanceof Map<?, ?> map) {
+                stack.push(new MapFrame(map.entrySet().iterator(), path, container, nameOfFieldInContainer));
+                return;
+            }
+
+            ModelVisitor.Action action = visitor.shouldVisit(path, element, container, nameOfFieldInContainer);
+            if (action == ModelVisitor.Action.SKIP || !visitation.markVisited(element))
+                return;
+            try {
+                visitor.visit(path, element, container, nameOfFieldInContainer);
+            } catch (KlumVisitorException exception) {
+                throw exception;
+            } catch (KlumException exception) {
+                throw new KlumVisitorException("Error visiting " + path + ": " + exception.getMessage(), element, exception);
+            } catch (Exception exception) {
+                throw new KlumVisitorException("Error visiting " + path, element, exception);
+            }
+            if (action != ModelVisitor.Action.SKIP_SUBTREE)
+                stack.push(new PropertiesFrame(element, path, getCompositionProperties(element).values().iterator()));
+        }
+
+        /** Pending children of one element, collection or map. */
+        private interface Frame {
+            /** Enters the next child, returns false once there is none left. */
+            boolean next();
+        }
+
+        private final class PropertiesFrame implements Frame {
+            private final Object element;
+            private final String path;
+            private final Iterator<Field> properties;
+
+            private PropertiesFrame(Object element, String path, Iterator<Field> properties) {
+                this.element = element;
+                this.path = path;
+                this.properties = properties;
+            }
+
+            @Override
+            public boolean next() {
+                if (!properties.hasNext())
+                    return false;
+                Field property = properties.next();
+                Object value = DslHelper.getFieldValue(element, property);
+                if (edges != null)
+                    recordEdges(edges, element, property, value);
+                enter(value, path + "." + property.getName(), element, property.getName());
+                return true;
+            }
+        }
+
+        private final class CollectionFrame implements Frame {
+            private final Iterator<?> members;
+            private final String path;
+            private final Object container;
+            private final String nameOfFieldInContainer;
+            private int index;
+
+            private CollectionFrame(Iterator<?> members, String path, Object container, String nameOfFieldInContainer) {
+                this.members = members;
+                this.path = path;
+                this.container = container;
+                this.nameOfFieldInContainer = nameOfFieldInContainer;
+            }
+
+            @Override
+            public boolean next() {
+                if (!members.hasNext())
+                    return false;
+                enter(members.next(), path + "[" + index++ + "]", container, nameOfFieldInContainer);
+                return true;
+            }
+        }
+
+        private final class MapFrame implements Frame {
+            private final Iterator<? extends Map.Entry<?, ?>> entries;
+            private final String path;
+            private final Object container;
+            private final String nameOfFieldInContainer;
+
+            private MapFrame(Iterator<? extends Map.Entry<?, ?>> entries, String path, Object container, String nameOfFieldInContainer) {
+                this.entries = entries;
+                this.path = path;
+                this.container = container;
+                this.nameOfFieldInContainer = nameOfFieldInContainer;
+            }
+
+            @Override
+            public boolean next() {
+                if (!entries.hasNext())
+                    return false;
+                Map.Entry<?, ?> entry = entries.next();
+                enter(entry.getValue(), path + "." + StructuralPath.toGPath(entry.getKey()), container, nameOfFieldInContainer);
+                return true;
+            }
         }
+    }
 
-        ModelVisitor.Action action = visitor.shouldVisit(path, element, container, nameOfFieldInContainer);
-        if (action == ModelVisitor.Action.SKIP || !alreadyVisited.add(element))
-            return;
-        try {
-            visitor.visit(path, element, container, nameOfFieldInContainer);
-        } catch (KlumVisitorException exception) {
-            throw exception;
-        } catch (KlumException exception) {
-            throw new KlumVisitorException("Error visiting " + path + ": " + exception.getMessage(), element, exception);
-        } catch (Exception exception) {
-            throw new KlumVisitorException("Error visiting " + path, element, exception);
+    private static void recordEdges(StructuralEdges edges, Object container, Field field, Object value) {
+        if (value instanceof Collection<?> collection) {
+            edges.recordCollectionMembers(container, field, collection);
+        } else if (value instanceof Map<?, ?> map) {
+            for (Map.Entry<?, ?> entry : map.entrySet())
+                if (entry.getKey() != null && isStructuralChild(entry.getValue()))
+                    edges.recordMapMember(entry.getValue(), container, field, entry.getKey());
+        } else if (isStructuralChild(value)) {
+            edges.recordField(value, container, field);
         }
-        if (action == ModelVisitor.Action.SKIP_SUBTREE)
-            return;
-        getCompositionProperties(element).forEach((name, value) ->
-                doVisit(value, visitor, alreadyVisited, path + "." + name, element, name));
+    }
+
+    static boolean isStructuralChild(Object value) {
+        return DslHelper.isDslObject(value) || DslHelper.isBuilder(value);
     }
 }
@@ -24,6 +24,7 @@
 package com.blackbuild.klum.ast.runtime.internal.layer3;
 
 import com.blackbuild.klum.ast.NoClosure;
+import com.blackbuild.klum.ast.runtime.internal.ClassSchema;
 import com.blackbuild.klum.ast.runtime.internal.ClosureHelper;
 import com.blackbuild.klum.ast.runtime.internal.DslHelper;
 import com.blackbuild.klum.ast.runtime.internal.InternalKlumBuilder;
@@ -137,7 +138,7 @@ public class LinkHelper {
         List<Field> matches = new ArrayList<>();
         Class<?> layer = builder.getClass();
         while (layer != null && InternalKlumBuilder.class.isAssignableFrom(layer)) {
-            for (Field field : layer.getDeclaredFields()) {
+            for (Field field : ClassSchema.of(layer).getDeclaredFields()) {
                 if (!Modifier.isStatic(field.getModifiers())
                         && !field.getName().contains("$")
                         && type.isAssignableFrom(field.getType())
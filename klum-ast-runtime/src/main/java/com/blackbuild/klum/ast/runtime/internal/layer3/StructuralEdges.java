@@ -0,0 +1,131 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.ast.runtime.internal.layer3;
+
+import com.blackbuild.klum.ast.runtime.internal.DslHelper;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Field;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * Identity index of the composition edges seen by {@link CompositionTraversal}.
+ *
+ * <p>Each child is mapped to the container, field and index or key it was reached through, so the path
+ * segment between a container and its child does not need to be searched for. Since the structure may
+ * still change after an edge was recorded, each lookup checks that the child is still found at the
+ * recorded position; stale or missing edges yield an empty result and callers fall back to searching.</p>
+ *
+ * <p>Members of random access lists are checked by index. Other collections cannot be indexed, so their
+ * members are checked against an identity set recorded together with the edges; such an edge only stays
+ * valid as long as the field still holds the same collection with an unchanged size.</p>
+ *
+ * <p>This type is public only because {@code PhaseDriver} in the process package owns the index of the running
+ * construction and hands it to each traversal. It is not supported client API.</p>
+ */
+public final class StructuralEdges {
+
+    private final Map<Object, Edge> edges = new IdentityHashMap<>();
+
+    void recordField(Object child, Object container, Field field) {
+        edges.put(child, new Edge(container, field, -1, null, null));
+    }
+
+    void recordCollectionMembers(Object container, Field field, Collection<?> collection) {
+        Members members = collection instanceof List<?> && collection instanceof RandomAccess ? null : new Members(collection);
+        int index = 0;
+        for (Object member : collection) {
+            if (CompositionTraversal.isStructuralChild(member)) {
+                edges.put(member, new Edge(container, field, index, null, members));
+                if (members != null)
+                    members.identities.add(member);
+            }
+            index++;
+        }
+    }
+
+    void recordMapMember(Object child, Object container, Field field, Object key) {
+        edges.put(child, new Edge(container, field, -1, key, null));
+    }
+
+    /**
+     * Returns the GPath segment leading from the container to the child, if the child was reached through
+     * the container and is still located at the recorded position.
+     */
+    public Optional<String> getPathOfFieldContaining(Object container, @NotNull Object child) {
+        Edge edge = edges.get(child);
+        if (edge == null || edge.container != container || !edge.isStillValid(child))
+            return Optional.empty();
+        return Optional.of(edge.toPathSegment());
+    }
+
+    /** The members of a collection that cannot be indexed, as seen when its edges were recorded. */
+    private static final class Members {
+        private final Collection<?> collection;
+        private final int size;
+        private final Set<Object> identities = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        private Members(Collection<?> collection) {
+            this.collection = collection;
+            this.size = collection.size();
+        }
+
+        boolean contains(Object value, Object child) {
+            return value == collection && collection.size() == size && identities.contains(child);
+        }
+    }
+
+    private record Edge(Object container, Field field, int index, @Nullable Object key, @Nullable Members members) {
+
+        boolean isStillValid(Object child) {
+            Object value = DslHelper.getFieldValue(container, field);
+            if (value == child)
+                return index == -1 && key == null;
+            if (members != null)
+                return members.contains(value, child);
+            if (index >= 0 && value instanceof List<?> list)
+                return index < list.size() && list.get(index) == child;
+            if (key != null && value instanceof Map<?, ?> map)
+                return map.get(key) == child;
+            return false;
+        }
+
+        String toPathSegment() {
+            String name = StructuralPath.toGPath(field.getName());
+            if (index >= 0)
+                return name + "[" + index + "]";
+            if (key != null)
+                return name + "." + StructuralPath.toGPath(key);
+            return name;
+        }
+    }
+}
@@ -23,6 +23,7 @@
  */
 package com.blackbuild.klum.ast.runtime.internal.layer3;
 
+import com.blackbuild.klum.ast.runtime.internal.process.PhaseDriver;
 import groovy.lang.PropertyValue;
 import groovy.lang.Tuple2;
 import org.codehaus.groovy.runtime.InvokerHelper;
@@ -53,7 +54,18 @@ public final class StructuralPath {
         return Utilities.isJavaIdentifier(text) ? text : InvokerHelper.inspect(text);
     }
 
+    /**
+     * Returns the path segment leading from the container to the child. While a construction is running, the edge
+     * recorded by the last traversal is used, otherwise the fields of the container are searched.
+     */
     public static Optional<String> getPathOfFieldContaining(Object container, @NotNull Object child) {
+        StructuralEdges edges = PhaseDriver.getStructuralEdges();
+        if (edges != null) {
+            Optional<String> recordedPath = edges.getPathOfFieldContaining(container, child);
+            if (recordedPath.isPresent())
+                return recordedPath;
+        }
+
         Optional<String> singleValuePath = getPathOfSingleField(container, child);
         if (singleValuePath.isPresent())
             return singleValuePath;
@@ -105,9 +117,6 @@ public final class StructuralPath {
     }
 
     static int getIndexInCollection(Collection<?> container, Object child) {
-        if (container instanceof List<?> list)
-            return list.indexOf(child);
-
         int index = 0;
         for (Object element : container) {
             if (element == child)
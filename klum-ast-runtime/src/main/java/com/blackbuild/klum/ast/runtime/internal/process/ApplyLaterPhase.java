@@ -23,21 +23,136 @@
  */
 package com.blackbuild.klum.ast.runtime.internal.process;
 import com.blackbuild.klum.ast.runtime.KlumPhase;
-import com.blackbuild.klum.ast.runtime.BuilderVisitingPhaseAction;
 
 import com.blackbuild.klum.ast.runtime.internal.InternalKlumBuilder;
-import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.Nullable;
+import groovy.lang.Closure;
 
-class ApplyLaterPhase extends BuilderVisitingPhaseAction {
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Runs the applyLater closures scheduled for one phase number. Closures are queued together with their Builder
+ * in registration order, so executing the phase only touches the Builders with pending closures instead of
+ * traversing the whole model.
+ *
+ * <p>A queued closure only runs for a Builder the traversal of the phase would have visited: one that is not
+ * sealed, belongs to the active Construction session and is still held by the composition field that claimed it,
+ * up to the root. Closures scheduled while the phase runs still run in it, unless their Builder has already been
+ * reached by the phase; those stay pending.</p>
+ */
+class ApplyLaterPhase extends AbstractPhaseAction {
+
+    private final Queue<Pending> pending = new ArrayDeque<>();
+    private long enqueued;
 
     ApplyLaterPhase(int phase) {
         super(new Phase(phase));
     }
 
+    void enqueue(InternalKlumBuilder<?> builder, Closure<?> closure) {
+        pending.add(new Pending(builder, closure, enqueued++));
+    }
+
     @Override
-    protected void doVisit(@NotNull String path, @NotNull InternalKlumBuilder<?> builder, @Nullable Object container, @Nullable String nameOfFieldInContainer) {
-        builder.executeApplyLaterClosures(getPhaseNumber());
+    protected void doExecute() {
+        Run run = new Run(PhaseDriver.getInstance().getRootObject(), PhaseDriver.getActiveConstructionSession());
+        List<Pending> deferred = new ArrayList<>();
+        while (!pending.isEmpty()) {
+            Pending next = pending.remove();
+            if (run.wasReachedBefore(next)) {
+                deferred.add(next);
+                continue;
+            }
+            if (!run.isVisitable(next.builder))
+                continue;
+            run.reach(next.builder, enqueued);
+            try {
+                PhaseDriver.getContext().setInstance(next.builder);
+                next.builder.executeApplyLaterClosure(getPhaseNumber(), next.closure);
+            } finally {
+                PhaseDriver.getContext().setInstance(null);
+            }
+            run.forgetStructure();
+        }
+        pending.addAll(deferred);
+    }
+
+    private record Pending(InternalKlumBuilder<?> builder, Closure<?> closure, long sequence) {
+    }
+
+    /**
+     * State of one execution of the phase. The attachment of Builders and the members of their containers are
+     * cached only until the next closure runs, since a closure may add or remove children.
+     */
+    private static final class Run {
+        private final Object root;
+        private final ConstructionSession session;
+        // the enqueue counter at the time a Builder ran its first closure of this execution
+        private final Map<InternalKlumBuilder<?>, Long> reachedAt = new IdentityHashMap<>();
+        private final Set<InternalKlumBuilder<?>> attached = Collections.newSetFromMap(new IdentityHashMap<>());
+        private final Map<Object, Set<Object>> membersOfContainers = new IdentityHashMap<>();
+
+        private Run(Object root, ConstructionSession session) {
+            this.root = root;
+            this.session = session;
+        }
+
+        private boolean wasReachedBefore(Pending pending) {
+            Long reached = reachedAt.get(pending.builder);
+            return reached != null && pending.sequence >= reached;
+        }
+
+        private void reach(InternalKlumBuilder<?> builder, long enqueueCounter) {
+            reachedAt.putIfAbsent(builder, enqueueCounter);
+        }
+
+        private void forgetStructure() {
+            attached.clear();
+            membersOfContainers.clear();
+        }
+
+        private boolean isVisitable(InternalKlumBuilder<?> builder) {
+            if (builder.isSealed())
+                return false;
+            if (session != null && !builder.$isInActiveConstructionSession(session))
+                return false;
+            return isAttached(builder);
+        }
+
+        private boolean isAttached(InternalKlumBuilder<?> builder) {
+            List<InternalKlumBuilder<?>> path = new ArrayList<>();
+            InternalKlumBuilder<?> current = builder;
+            while (current != root && !attached.contains(current)) {
+                InternalKlumBuilder<?> owner = current.$getCompositionOwner();
+                if (owner == null || !holds(owner.getInstanceAttribute(current.$getCompositionFieldName()), current))
+                    return false;
+                path.add(current);
+                current = owner;
+            }
+            attached.addAll(path);
+            return true;
+        }
+
+        private boolean holds(Object container, InternalKlumBuilder<?> builder) {
+            if (container == builder)
+                return true;
+            if (!(container instanceof Collection<?>) && !(container instanceof Map<?, ?>))
+                return false;
+            return membersOfContainers.computeIfAbsent(container, Run::identityMembers).contains(builder);
+        }
+
+        private static Set<Object> identityMembers(Object container) {
+            Set<Object> members = Collections.newSetFromMap(new IdentityHashMap<>());
+            members.addAll(container instanceof Map<?, ?> map ? map.values() : (Collection<?>) container);
+            return members;
+        }
     }
 
     static class Phase implements KlumPhase {
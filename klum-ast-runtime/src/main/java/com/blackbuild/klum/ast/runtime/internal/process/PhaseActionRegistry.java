@@ -0,0 +1,94 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.ast.runtime.internal.process;
+
+import com.blackbuild.klum.ast.runtime.PhaseAction;
+import com.blackbuild.klum.ast.runtime.internal.ClassLoaderCache;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Immutable mapping of phase numbers to the {@link PhaseAction}s discovered by a single class loader.
+ *
+ * <p>Discovery through {@link ServiceLoader} happens once per class loader. Every {@link PhaseDriver}
+ * then only asks the registry for the actions of its root lifecycle: {@link PhaseAction#isStateless() stateless}
+ * actions are shared, all others are instantiated again by their service provider, without rescanning
+ * the class path.</p>
+ *
+ * <p>Hosts that reload plugins should call {@link #invalidate(ClassLoader)} when replacing a plugin class loader.</p>
+ */
+public final class PhaseActionRegistry {
+
+    private static final ClassLoaderCache<PhaseActionRegistry> REGISTRIES = new ClassLoaderCache<>(PhaseActionRegistry::new);
+
+    private final NavigableMap<Integer, List<Supplier<PhaseAction>>> factories;
+
+    private PhaseActionRegistry(ClassLoader classLoader) {
+        NavigableMap<Integer, List<Supplier<PhaseAction>>> result = new TreeMap<>();
+        ServiceLoader.load(PhaseAction.class, classLoader).stream().forEach(provider -> {
+            PhaseAction prototype = provider.get();
+            Supplier<PhaseAction> factory = prototype.isStateless() ? () -> prototype : provider;
+            result.computeIfAbsent(prototype.getPhaseNumber(), ignore -> new ArrayList<>()).add(factory);
+        });
+        result.replaceAll((phase, actions) -> List.copyOf(actions));
+        factories = Collections.unmodifiableNavigableMap(result);
+    }
+
+    /**
+     * Returns the registry of the current thread's context class loader, which is the class loader
+     * {@link ServiceLoader#load(Class)} would use.
+     */
+    public static PhaseActionRegistry forCurrentThread() {
+        return REGISTRIES.forCurrentThread();
+    }
+
+    public static PhaseActionRegistry forClassLoader(ClassLoader classLoader) {
+        return REGISTRIES.get(classLoader);
+    }
+
+    /**
+     * Discards the registry of the given class loader, so that the next lifecycle started with it
+     * discovers its phase actions again.
+     */
+    public static void invalidate(ClassLoader classLoader) {
+        REGISTRIES.invalidate(classLoader);
+    }
+
+    /** Discards the registries of all class loaders. */
+    public static void invalidateAll() {
+        REGISTRIES.invalidateAll();
+    }
+
+    /**
+     * Provides the actions of one root lifecycle, in phase order and in discovery order within a phase.
+     * @param consumer receives each action
+     */
+    void instantiateActions(Consumer<PhaseAction> consumer) {
+        for (List<Supplier<PhaseAction>> actions : factories.values())
+            for (Supplier<PhaseAction> factory : actions)
+                consumer.accept(factory.get());
+    }
+}
@@ -22,6 +22,7 @@
  * SOFTWARE.
  */
 package com.blackbuild.klum.ast.runtime.internal.process;
+import com.blackbuild.klum.ast.runtime.BuilderVisitingPhaseAction;
 import com.blackbuild.klum.ast.runtime.PhaseAction;
 import com.blackbuild.klum.ast.runtime.KlumPhase;
 import com.blackbuild.klum.ast.runtime.DefaultKlumPhase;
@@ -29,6 +30,7 @@ import com.blackbuild.klum.ast.runtime.DefaultKlumPhase;
 import com.blackbuild.klum.ast.runtime.internal.InternalKlumBuilder;
 import com.blackbuild.klum.ast.runtime.KlumModelException;
 import com.blackbuild.klum.ast.runtime.internal.InternalKlumObjectSupport;
+import com.blackbuild.klum.ast.runtime.internal.layer3.StructuralEdges;
 import groovy.lang.Closure;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -62,11 +64,17 @@ public class PhaseDriver {
     private ConstructionSession constructionSession;
     private final Set<InternalKlumBuilder<?>> constructionSessionBuilders =
             Collections.newSetFromMap(new IdentityHashMap<>());
+    // model types of the Builders in the construction session, used to skip phases none of them needs
+    private final Set<Class<?>> constructionSessionTypes = new HashSet<>();
+    private int visitationEpochs;
+    private boolean visitationEpochClaimed;
 
     private PhaseAction currentPhase;
 
+    private final StructuralEdges structuralEdges = new StructuralEdges();
+
     public PhaseDriver() {
-        ServiceLoader.load(PhaseAction.class).forEach(this::addPhase);
+        PhaseActionRegistry.forCurrentThread().instantiateActions(this::addPhase);
     }
 
     public static KlumPhase getCurrentPhase() {
@@ -85,6 +93,15 @@ public class PhaseDriver {
         return phaseDriver.currentPhase;
     }
 
+    /**
+     * Returns the composition edges recorded by the traversals of the construction running on this thread,
+     * or null if no construction is running.
+     */
+    public static @Nullable StructuralEdges getStructuralEdges() {
+        PhaseDriver driver = INSTANCE.get();
+        return driver != null ? driver.structuralEdges : null;
+    }
+
     public static Context getContext() {
         return getInstance().context;
     }
@@ -97,8 +114,9 @@ public class PhaseDriver {
         phaseActions.computeIfAbsent(action.getPhaseNumber(), ignore -> new ArrayList<>()).add(action);
     }
 
-    public void registerApplyLaterPhase(int phaseNumber) {
-        applyLaterPhaseActions.computeIfAbsent(phaseNumber, ignore -> new ApplyLaterPhase(phaseNumber));
+    /** Queues an applyLater closure of a Builder to be run in the given phase. */
+    public void scheduleApplyLater(int phaseNumber, InternalKlumBuilder<?> builder, Closure<?> closure) {
+        applyLaterPhaseActions.computeIfAbsent(phaseNumber, ApplyLaterPhase::new).enqueue(builder, closure);
     }
 
     /**
@@ -165,6 +183,33 @@ public class PhaseDriver {
             return;
         builder.$attachConstructionSession(driver.constructionSession);
         driver.constructionSessionBuilders.add(builder);
+        driver.constructionSessionTypes.add(builder.getModelType());
+    }
+
+    /** Returns the Construction session of the root lifecycle active on this thread, if any. */
+    public static @Nullable ConstructionSession getActiveConstructionSession() {
+        PhaseDriver driver = INSTANCE.get();
+        return driver == null ? null : driver.constructionSession;
+    }
+
+    /**
+     * Claims a fresh visitation epoch for a traversal of the active Construction session. Only one traversal
+     * per thread holds an epoch at a time, since nested traversals would overwrite its marks.
+     * @return the epoch, or 0 if there is no active session or the epoch of this thread is already claimed
+     */
+    public static int claimVisitationEpoch() {
+        PhaseDriver driver = INSTANCE.get();
+        if (driver == null || driver.constructionSession == null || driver.visitationEpochClaimed)
+            return 0;
+        driver.visitationEpochClaimed = true;
+        return ++driver.visitationEpochs;
+    }
+
+    /** Releases the epoch claimed by {@link #claimVisitationEpoch()}. */
+    public static void releaseVisitationEpoch() {
+        PhaseDriver driver = INSTANCE.get();
+        if (driver != null)
+            driver.visitationEpochClaimed = false;
     }
 
     /** Rejects Builder-producing factory calls that are not owned by a root lifecycle. */
@@ -212,6 +257,7 @@ public class PhaseDriver {
             return;
         constructionSessionBuilders.forEach(builder -> builder.$completeConstructionSession(completedSession));
         constructionSessionBuilders.clear();
+        constructionSessionTypes.clear();
         constructionSession = null;
     }
 
@@ -238,16 +284,44 @@ public class PhaseDriver {
         }
     }
 
+    /**
+     * Runs the applyLater closures queued for one phase number of the lifecycle on this thread, without running
+     * any other phase.
+     * @param phaseNumber the phase number the closures were scheduled for
+     */
+    public static void executeApplyLaterPhase(int phaseNumber) {
+        PhaseDriver phaseDriver = getInstance();
+        ApplyLaterPhase applyLaterPhase = phaseDriver.applyLaterPhaseActions.get(phaseNumber);
+        if (applyLaterPhase != null)
+            phaseDriver.executeAction(applyLaterPhase);
+    }
+
     private void callApplyLaterClosures() {
         postPhaseClosures.forEach(Closure::call);
         postPhaseClosures.clear();
     }
 
     private void executeAction(PhaseAction action) {
+        if (!appliesToConstructionSession(action))
+            return;
         currentPhase = action;
         action.execute();
     }
 
+    /**
+     * Returns false for a Builder phase that applies to none of the model types of the current construction
+     * session. The Builders of a session are all attached when created, so the check is exact rather than
+     * depending on which subtypes might be reachable from the root type.
+     */
+    private boolean appliesToConstructionSession(PhaseAction action) {
+        if (!(action instanceof BuilderVisitingPhaseAction builderAction) || constructionSession == null)
+            return true;
+        for (Class<?> type : constructionSessionTypes)
+            if (builderAction.appliesTo(type))
+                return true;
+        return false;
+    }
+
     public Object getRootObject() {
         return rootObject;
     }
@@ -30,19 +30,34 @@ import com.blackbuild.klum.ast.runtime.BuilderVisitingPhaseAction;
 import com.blackbuild.klum.ast.runtime.KlumSchemaSupport;
 import com.blackbuild.klum.ast.runtime.internal.InternalKlumBuilder;
 import com.blackbuild.klum.ast.runtime.internal.layer3.ClusterModel;
+import com.blackbuild.klum.ast.runtime.internal.PhaseApplicability;
 import com.blackbuild.klum.ast.layer3.Notify;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.lang.reflect.Field;
 import java.util.Arrays;
+import java.util.function.Predicate;
 
 public class EarlyValidationPhase extends BuilderVisitingPhaseAction {
 
+    private static final Predicate<Class<?>> APPLICABLE = PhaseApplicability.perType(type ->
+            PhaseApplicability.declares(type, Deprecated.class) || PhaseApplicability.declares(type, Notify.class));
+
     public EarlyValidationPhase() {
         super(DefaultKlumPhase.EARLY_VALIDATE);
     }
 
+    @Override
+    public boolean isStateless() {
+        return true;
+    }
+
+    @Override
+    public boolean appliesTo(Class<?> modelType) {
+        return APPLICABLE.test(modelType);
+    }
+
     @Override
     protected void doVisit(@NotNull String path, @NotNull InternalKlumBuilder<?> builder, @Nullable Object container, @Nullable String nameOfFieldInContainer) {
         markDeprecateUnsetFields(builder);
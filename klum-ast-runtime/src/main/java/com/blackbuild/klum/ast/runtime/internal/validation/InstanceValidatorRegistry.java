@@ -0,0 +1,89 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.ast.runtime.internal.validation;
+
+import com.blackbuild.klum.ast.runtime.internal.ClassLoaderCache;
+import com.blackbuild.klum.ast.runtime.validation.InstanceValidator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * The {@link InstanceValidator}s discovered by a single class loader.
+ *
+ * <p>Discovery happens once per class loader. {@link InstanceValidator#isStateless() Stateless} validators
+ * serve every validated object; all others are instantiated again by their service provider for each object.</p>
+ */
+public final class InstanceValidatorRegistry {
+
+    private static final ClassLoaderCache<InstanceValidatorRegistry> REGISTRIES = new ClassLoaderCache<>(InstanceValidatorRegistry::new);
+
+    private final List<Supplier<InstanceValidator>> validators;
+
+    private InstanceValidatorRegistry(ClassLoader classLoader) {
+        List<Supplier<InstanceValidator>> result = new ArrayList<>();
+        ServiceLoader.load(InstanceValidator.class, classLoader).stream().forEach(provider -> {
+            InstanceValidator prototype = provider.get();
+            result.add(prototype.isStateless() ? () -> prototype : provider);
+        });
+        validators = List.copyOf(result);
+    }
+
+    /**
+     * Returns the registry of the current thread's context class loader, which is the class loader
+     * {@link ServiceLoader#load(Class)} would use.
+     */
+    public static InstanceValidatorRegistry forCurrentThread() {
+        return REGISTRIES.forCurrentThread();
+    }
+
+    public static InstanceValidatorRegistry forClassLoader(ClassLoader classLoader) {
+        return REGISTRIES.get(classLoader);
+    }
+
+    /**
+     * Discards the registry of the given class loader, so that the next validation using it
+     * discovers its validators again.
+     */
+    public static void invalidate(ClassLoader classLoader) {
+        REGISTRIES.invalidate(classLoader);
+    }
+
+    /** Discards the registries of all class loaders. */
+    public static void invalidateAll() {
+        REGISTRIES.invalidateAll();
+    }
+
+    /**
+     * Provides the validators for a single object, in discovery order.
+     * @param consumer receives each validator
+     */
+    void forEachValidator(Consumer<InstanceValidator> consumer) {
+        for (Supplier<InstanceValidator> factory : validators)
+            consumer.accept(factory.get());
+    }
+}
@@ -32,20 +32,27 @@ import com.blackbuild.klum.ast.runtime.internal.process.PhaseDriver;
 import java.lang.reflect.AnnotatedElement;
 import java.util.Optional;
 
+/**
+ * Base class of the validators for KlumAST's own validation annotations. Validators are stateless and
+ * shared by all validated objects; everything belonging to a single validation is kept in its
+ * {@link ValidationContext}.
+ */
 public abstract class KlumAnnotationsValidator implements InstanceValidator {
-    protected Object instance;
-    protected String breadcrumbPath;
-    protected KlumValidationResult validationResult;
 
-    protected Optional<KlumValidationIssue> withExceptionCheck(String memberName, Validate.Level level, Runnable runnable) {
+    @Override
+    public boolean isStateless() {
+        return true;
+    }
+
+    protected Optional<KlumValidationIssue> withExceptionCheck(ValidationContext context, String memberName, Validate.Level level, Runnable runnable) {
         try {
             PhaseDriver.getContext().setMember(memberName);
             runnable.run();
             return Optional.empty();
         } catch (Exception e) {
-            return Optional.of(new KlumValidationIssue(breadcrumbPath, memberName, e.getMessage(), e, level));
+            return Optional.of(new KlumValidationIssue(context.breadcrumbPath, memberName, e.getMessage(), e, level));
         } catch (AssertionError e) {
-            return Optional.of(new KlumValidationIssue(breadcrumbPath, memberName, e.getMessage(), null, level));
+            return Optional.of(new KlumValidationIssue(context.breadcrumbPath, memberName, e.getMessage(), null, level));
         } finally {
             PhaseDriver.getContext().setMember(null);
         }
@@ -59,12 +66,33 @@ public abstract class KlumAnnotationsValidator implements InstanceValidator {
 
     @Override
     public void validateInstance(Object instance, KlumValidationResult validationResult) {
-        this.instance = instance;
-        this.breadcrumbPath = validationResult.getBreadcrumbPath();
-        this.validationResult = validationResult;
-
-        doValidateInstance();
+        doValidateInstance(new ValidationContext(instance, validationResult));
     }
 
-    protected abstract void doValidateInstance();
+    protected abstract void doValidateInstance(ValidationContext context);
+
+    /**
+     * The state of a single validator invocation.
+     */
+    protected static class ValidationContext {
+        protected final Object instance;
+        protected final String breadcrumbPath;
+        protected final KlumValidationResult validationResult;
+
+        protected ValidationContext(Object instance, KlumValidationResult validationResult) {
+            this.instance = instance;
+            this.breadcrumbPath = validationResult.getBreadcrumbPath();
+            this.validationResult = validationResult;
+        }
+
+        protected ValidationContext(ValidationContext parent) {
+            this.instance = parent.instance;
+            this.breadcrumbPath = parent.breadcrumbPath;
+            this.validationResult = parent.validationResult;
+        }
+
+        void addIssue(KlumValidationIssue issue) {
+            validationResult.addIssue(issue);
+        }
+    }
 }
@@ -26,6 +26,7 @@ import com.blackbuild.klum.ast.runtime.validation.KlumValidationIssue;
 
 import com.blackbuild.klum.ast.Owner;
 import com.blackbuild.klum.ast.Validate;
+import com.blackbuild.klum.ast.runtime.internal.ClassSchema;
 import com.blackbuild.klum.ast.runtime.internal.ClosureHelper;
 import com.blackbuild.klum.ast.runtime.internal.DslHelper;
 import groovy.lang.Closure;
@@ -42,10 +43,10 @@ import static org.codehaus.groovy.runtime.typehandling.DefaultTypeTransformation
 public class KlumFieldAnnotationsValidator extends KlumLayeredAnnotationsValidator {
 
     @Override
-    protected void doValidateLayer() {
-        for (Field field : currentLayer.getDeclaredFields()) {
+    protected void doValidateLayer(LayerContext context) {
+        for (Field field : ClassSchema.of(context.currentLayer).getDeclaredFields()) {
             if (!isNotExplicitlyIgnored(field)) continue;
-            validateField(field).ifPresent(validationResult::addIssue);
+            validateField(context, field).ifPresent(context::addIssue);
         }
     }
 
@@ -54,19 +55,20 @@ public class KlumFieldAnnotationsValidator extends KlumLayeredAnnotationsValidat
         return getValidateAnnotationOrDefault(field).value() != Validate.Ignore.class;
     }
 
-    private boolean shouldValidate(Field field) {
+    private boolean shouldValidate(LayerContext context, Field field) {
         if (field.getName().startsWith("$")) return false;
         if (Modifier.isTransient(field.getModifiers())) return false;
         if (field.isAnnotationPresent(Owner.class)) return false;
         if (field.getType() == boolean.class) return false;
 
-        return classHasValidateAnnotation || field.isAnnotationPresent(Validate.class);
+        return context.classHasValidateAnnotation || field.isAnnotationPresent(Validate.class);
     }
 
-    private Optional<KlumValidationIssue> validateField(Field field) {
-        if (!shouldValidate(field))
+    private Optional<KlumValidationIssue> validateField(LayerContext context, Field field) {
+        if (!shouldValidate(context, field))
             return Optional.empty();
 
+        Object instance = context.instance;
         Object value = DslHelper.getAttributeValue(field.getName(), instance);
 
         if (instance.getClass().isAnnotationPresent(Validate.class) && field.isAnnotationPresent(Deprecated.class) && !field.isAnnotationPresent(Validate.class))
@@ -75,16 +77,17 @@ public class KlumFieldAnnotationsValidator extends KlumLayeredAnnotationsValidat
         Validate validate = getValidateAnnotationOrDefault(field);
 
         if (validate.value() == Validate.GroovyTruth.class)
-            return checkAgainstGroovyTruth(field, value, validate);
+            return checkAgainstGroovyTruth(context, field, value, validate);
         else
             return withExceptionCheck(
+                    context,
                     field.getName(),
                     validate.level(),
                     () -> ClosureHelper.invokeClosureWithDelegate((Class<? extends Closure<Void>>) validate.value(), instance, value)
             );
     }
 
-    private Optional<KlumValidationIssue> checkAgainstGroovyTruth(Field field, Object value, Validate validate) {
+    private Optional<KlumValidationIssue> checkAgainstGroovyTruth(ValidationContext context, Field field, Object value, Validate validate) {
         if (isGroovyTruth(field, value)) return Optional.empty();
 
         String message = validate.message();
@@ -92,7 +95,7 @@ public class KlumFieldAnnotationsValidator extends KlumLayeredAnnotationsValidat
         if (message.isEmpty())
             message = String.format("Field '%s' must be set", field.getName());
 
-        return Optional.of(new KlumValidationIssue(breadcrumbPath, field.getName(), message, null, validate.level()));
+        return Optional.of(new KlumValidationIssue(context.breadcrumbPath, field.getName(), message, null, validate.level()));
     }
 
     @SuppressWarnings("java:S1126")
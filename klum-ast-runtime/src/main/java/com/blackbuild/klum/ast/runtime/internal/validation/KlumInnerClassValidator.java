@@ -37,31 +37,33 @@ import java.util.Optional;
 public class KlumInnerClassValidator extends KlumAnnotationsValidator {
 
     @Override
-    protected void doValidateInstance() {
-        LifecycleHelper.getLifecycleClasses(instance.getClass(), Validate.class).forEach(this::validateInnerClass);
+    protected void doValidateInstance(ValidationContext context) {
+        for (Class<?> validatorClass : LifecycleHelper.getLifecycleClasses(context.instance.getClass(), Validate.class))
+            validateInnerClass(context, validatorClass);
     }
 
-    private void validateInnerClass(Class<?> validatorClass) {
+    private void validateInnerClass(ValidationContext context, Class<?> validatorClass) {
         try {
-            Object validatorInstance = validatorClass.getConstructor(validatorClass.getDeclaringClass()).newInstance(instance);
+            Object validatorInstance = validatorClass.getConstructor(validatorClass.getDeclaringClass()).newInstance(context.instance);
             Arrays.stream(validatorClass.getMethods())
                     .filter(method -> LifecycleHelper.isValidLifecycleClassMethod(method, Validate.class))
-                    .forEach(method -> validateMethod(validatorInstance, method));
+                    .forEach(method -> validateMethod(context, validatorInstance, method));
         } catch (InstantiationException | IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
             throw new KlumSchemaException(e);
         }
 
     }
 
-    private void validateMethod(Object validatorInstance, Method method) {
+    private void validateMethod(ValidationContext context, Object validatorInstance, Method method) {
         Validate.Level level = getValidationLevelForMethod(method);
         Optional<KlumValidationIssue> issue = withExceptionCheck(
+                context,
                 validatorInstance.getClass().getSimpleName() + "." + method.getName() + "()",
                 level,
                 () -> InvokerHelper.invokeMethod(validatorInstance, method.getName(), null)
         );
 
-        issue.ifPresent(validationResult::addIssue);
+        issue.ifPresent(context::addIssue);
     }
 
     private Validate.Level getValidationLevelForMethod(Method method) {
@@ -27,21 +27,26 @@ import com.blackbuild.klum.ast.Validate;
 import com.blackbuild.klum.ast.runtime.internal.DslHelper;
 
 public abstract class KlumLayeredAnnotationsValidator extends KlumAnnotationsValidator {
-    protected Class<?> currentLayer;
-    protected boolean classHasValidateAnnotation;
 
     @Override
-    protected void doValidateInstance() {
-        DslHelper.getDslHierarchyOf(instance.getClass()).forEach(this::validateLayer);
+    protected void doValidateInstance(ValidationContext context) {
+        for (Class<?> layer : DslHelper.getDslHierarchyOf(context.instance.getClass()))
+            doValidateLayer(new LayerContext(context, layer));
     }
 
-    private void validateLayer(Class<?> layer) {
-        currentLayer = layer;
-        classHasValidateAnnotation = layer.isAnnotationPresent(Validate.class);
-        doValidateLayer();
-    }
-
-    protected abstract void doValidateLayer();
+    protected abstract void doValidateLayer(LayerContext context);
 
+    /**
+     * The state of a single validator invocation while validating one layer of the instance.
+     */
+    protected static class LayerContext extends ValidationContext {
+        protected final Class<?> currentLayer;
+        protected final boolean classHasValidateAnnotation;
 
+        LayerContext(ValidationContext parent, Class<?> layer) {
+            super(parent);
+            currentLayer = layer;
+            classHasValidateAnnotation = layer.isAnnotationPresent(Validate.class);
+        }
+    }
 }
@@ -25,6 +25,7 @@ package com.blackbuild.klum.ast.runtime.internal.validation;
 import com.blackbuild.klum.ast.runtime.validation.KlumValidationIssue;
 
 import com.blackbuild.klum.ast.Validate;
+import com.blackbuild.klum.ast.runtime.internal.ClassSchema;
 import org.codehaus.groovy.runtime.InvokerHelper;
 
 import java.lang.reflect.Method;
@@ -36,19 +37,20 @@ import java.util.Optional;
 public class KlumMethodAnnotationsValidator extends KlumLayeredAnnotationsValidator {
 
     @Override
-    protected void doValidateLayer() {
-        for (Method m : currentLayer.getDeclaredMethods()) {
+    protected void doValidateLayer(LayerContext context) {
+        for (Method m : ClassSchema.of(context.currentLayer).getDeclaredMethods()) {
             if (!m.isAnnotationPresent(Validate.class)) continue;
-            validateCustomMethod(m).ifPresent(validationResult::addIssue);
+            validateCustomMethod(context, m).ifPresent(context::addIssue);
         }
     }
 
-    private Optional<KlumValidationIssue> validateCustomMethod(Method method) {
+    private Optional<KlumValidationIssue> validateCustomMethod(ValidationContext context, Method method) {
         Validate.Level level = getValidateAnnotationOrDefault(method).level();
         return withExceptionCheck(
+                context,
                 method.getName() + "()",
                 level,
-                () -> InvokerHelper.invokeMethod(instance, method.getName(), null)
+                () -> InvokerHelper.invokeMethod(context.instance, method.getName(), null)
         );
     }
 
@@ -23,13 +23,10 @@
  */
 package com.blackbuild.klum.ast.runtime.internal.validation;
 import com.blackbuild.klum.ast.runtime.validation.KlumValidationResult;
-import com.blackbuild.klum.ast.runtime.validation.InstanceValidator;
 
 import com.blackbuild.klum.ast.runtime.internal.process.PhaseDriver;
 import com.blackbuild.klum.ast.runtime.internal.InternalKlumObjectSupport;
 
-import java.util.ServiceLoader;
-
 /**
  * Validates an instance of a DSL object, checking for the presence of required fields,
  * and custom validation methods.
@@ -61,7 +58,7 @@ class SingleObjectValidationHandler {
 
     private KlumValidationResult validateInstance() {
         KlumValidationResult validationResult = getOrCreateValidationResult();
-        ServiceLoader.load(InstanceValidator.class).forEach(handler -> {
+        InstanceValidatorRegistry.forCurrentThread().forEachValidator(handler -> {
             if (InternalKlumObjectSupport.markValidatorExecuted(instance, handler.getClass()))
                 handler.validateInstance(instance, validationResult);
         });
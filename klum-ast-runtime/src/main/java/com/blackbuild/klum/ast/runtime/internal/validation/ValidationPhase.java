@@ -37,6 +37,11 @@ public class ValidationPhase extends ModelVisitingPhaseAction {
         super(DefaultKlumPhase.VALIDATE);
     }
 
+    @Override
+    public boolean isStateless() {
+        return true;
+    }
+
     @Override
     protected void doVisit(@NotNull String path, @NotNull Object element, @Nullable Object container, @Nullable String nameOfFieldInContainer) {
         new SingleObjectValidationHandler(element).execute();
@@ -35,4 +35,13 @@ public interface InstanceValidator {
      * @param validationResult ths validation result to collect the issues in
      */
     void validateInstance(Object instance, KlumValidationResult validationResult);
+
+    /**
+     * Whether a single instance of this validator can validate all objects, possibly from several threads.
+     * Stateful validators (the default) are instantiated again for each validated object.
+     * @return true if the validator keeps no state between or during validations.
+     */
+    default boolean isStateless() {
+        return false;
+    }
 }
@@ -0,0 +1,100 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.ast.runtime.internal.process
+
+import com.blackbuild.klum.ast.runtime.DefaultKlumPhase
+import com.blackbuild.klum.ast.runtime.PhaseAction
+import com.blackbuild.klum.ast.runtime.internal.OwnerPhase
+import spock.lang.Specification
+import spock.lang.TempDir
+
+import java.nio.file.Path
+
+class PhaseActionRegistryTest extends Specification {
+
+    @TempDir Path pluginDir
+
+    def cleanup() {
+        PhaseActionRegistry.invalidateAll()
+    }
+
+    def "registry is discovered once per class loader"() {
+        given:
+        def loader = PhaseActionRegistryTest.classLoader
+
+        expect:
+        PhaseActionRegistry.forClassLoader(loader).is(PhaseActionRegistry.forClassLoader(loader))
+    }
+
+    def "invalidation discards the registry of a class loader"() {
+        given:
+        def loader = PhaseActionRegistryTest.classLoader
+        def registry = PhaseActionRegistry.forClassLoader(loader)
+
+        when:
+        PhaseActionRegistry.invalidate(loader)
+
+        then:
+        !PhaseActionRegistry.forClassLoader(loader).is(registry)
+    }
+
+    def "stateless actions are shared, stateful actions are instantiated per lifecycle"() {
+        given:
+        def services = pluginDir.resolve('META-INF/services')
+        services.toFile().mkdirs()
+        services.resolve(PhaseAction.name).toFile().text = StatefulPhase.name
+        def loader = new URLClassLoader([pluginDir.toUri().toURL()] as URL[], PhaseActionRegistryTest.classLoader)
+        def registry = PhaseActionRegistry.forClassLoader(loader)
+
+        when:
+        List<PhaseAction> first = []
+        List<PhaseAction> second = []
+        registry.instantiateActions(first.&add)
+        registry.instantiateActions(second.&add)
+
+        then:
+        first.find { it instanceof OwnerPhase }.is(second.find { it instanceof OwnerPhase })
+        first.find { it instanceof StatefulPhase } != null
+        !first.find { it instanceof StatefulPhase }.is(second.find { it instanceof StatefulPhase })
+
+        and: 'actions are provided in phase order'
+        first*.phaseNumber == first*.phaseNumber.sort(false)
+
+        cleanup:
+        loader.close()
+    }
+
+    static class StatefulPhase extends AbstractPhaseAction {
+        List<Object> visited = []
+
+        StatefulPhase() {
+            super(DefaultKlumPhase.DEFAULT)
+        }
+
+        @Override
+        protected void doExecute() {
+            visited << PhaseDriver.instance.rootObject
+        }
+    }
+}
@@ -25,6 +25,7 @@ package com.blackbuild.klum.ast.runtime.generated
 
 import com.blackbuild.klum.ast.runtime.DefaultKlumPhase
 import com.blackbuild.klum.ast.runtime.KlumPhase
+import com.blackbuild.klum.ast.runtime.internal.process.PhaseDriver
 import spock.lang.Issue
 import spock.lang.Specification
 
@@ -37,6 +38,7 @@ class GeneratedKlumBuilderTest extends Specification {
         def applied = []
 
         when:
+        PhaseDriver.enter(builder)
         builder.assignRelationships()
         builder.setValue('configured')
         builder.copyRecipe(new BridgeModel(value: 'recipe'))
@@ -46,12 +48,15 @@ class GeneratedKlumBuilderTest extends Specification {
         builder.applyLater { applied << 'public-default' }
         builder.applyLater(DefaultKlumPhase.DEFAULT) { applied << 'public-phase' }
         builder.applyLater(DefaultKlumPhase.DEFAULT.number) { applied << 'public-number' }
-        builder.executeApplyLaterClosures(DefaultKlumPhase.APPLY_LATER.number)
-        builder.executeApplyLaterClosures(DefaultKlumPhase.DEFAULT.number)
+        PhaseDriver.executeApplyLaterPhase(DefaultKlumPhase.APPLY_LATER.number)
+        PhaseDriver.executeApplyLaterPhase(DefaultKlumPhase.DEFAULT.number)
 
         then:
         builder.value == 'configured'
         applied == ['default', 'public-default', 'phase', 'number', 'public-phase', 'public-number']
+
+        cleanup:
+        PhaseDriver.leave()
     }
 
     private static class BridgeModel {
@@ -0,0 +1,116 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.ast.runtime.internal
+
+import com.blackbuild.klum.ast.Key
+import com.blackbuild.klum.ast.Owner
+
+class ClassSchemaTest extends AbstractRuntimeTest {
+
+    def "schemas are shared per class"() {
+        given:
+        createClass('''
+            class Dummy {
+                String name
+            }
+        ''')
+
+        expect:
+        ClassSchema.of(getClass("Dummy")).is(ClassSchema.of(getClass("Dummy")))
+    }
+
+    def "fields of subclasses hide fields of superclasses"() {
+        given:
+        createClass('''
+            class Dummy {
+                String name
+                String value
+            }
+
+            class Yummy extends Dummy {
+                String value
+            }
+        ''')
+
+        when:
+        def schema = ClassSchema.of(getClass("Yummy"))
+
+        then:
+        schema.getField("value").get().declaringClass == getClass("Yummy")
+        schema.getField("name").get().declaringClass == getClass("Dummy")
+        schema.getCachedField("name").isPresent()
+        !schema.getField("unknown").isPresent()
+        schema.hierarchy == [getClass("Yummy"), getClass("Dummy"), Object]
+    }
+
+    def "annotated members and key field are resolved along the DSL hierarchy"() {
+        given:
+        createClass('''
+            import com.blackbuild.klum.ast.DSL
+            import com.blackbuild.klum.ast.Key
+            import com.blackbuild.klum.ast.Owner
+            import com.blackbuild.klum.ast.runtime.KlumModelObject
+
+            @DSL
+            class Parent implements KlumModelObject {
+                @Key String id
+                @Owner Object owner
+                @Owner void zOwner(Object value) {}
+                @Owner void aOwner(Object value) {}
+            }
+
+            @DSL
+            class Child extends Parent {
+                @Owner Object childOwner
+            }
+        ''')
+
+        when:
+        def schema = ClassSchema.of(getClass("Child"))
+
+        then:
+        schema.dslHierarchy == [getClass("Parent"), getClass("Child")]
+        schema.keyField.get().name == "id"
+        schema.getFieldsAnnotatedWith(Owner)*.name == ["owner", "childOwner"]
+        schema.getMethodsAnnotatedWith(Owner)*.name == ["aOwner", "zOwner"]
+        schema.getFieldsAnnotatedWith(Key).is(schema.getFieldsAnnotatedWith(Key))
+        DslHelper.isOwner(schema.getField("owner").get())
+        !DslHelper.isOwner(schema.getField("id").get())
+    }
+
+    def "cached lists are immutable"() {
+        given:
+        createClass('''
+            class Dummy {
+                String name
+            }
+        ''')
+
+        when:
+        ClassSchema.of(getClass("Dummy")).declaredFields.clear()
+
+        then:
+        thrown(UnsupportedOperationException)
+    }
+}
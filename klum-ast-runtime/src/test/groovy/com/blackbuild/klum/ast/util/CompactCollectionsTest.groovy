@@ -0,0 +1,206 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.ast.runtime.internal
+
+import spock.lang.Specification
+
+class CompactCollectionsTest extends Specification {
+
+    def "lists of size #size behave like unmodifiable lists"() {
+        given:
+        List expected = (0..<size).collect { "e$it".toString() }
+
+        when:
+        List list = MaterializationSnapshots.snapshotCollection(new ArrayList(expected), List, false)
+
+        then:
+        list == expected
+        list.hashCode() == expected.hashCode()
+        list.size() == size
+        list instanceof RandomAccess
+
+        when:
+        list.add("new")
+
+        then:
+        thrown(UnsupportedOperationException)
+
+        where:
+        size << [0, 1, 2, 3, 20]
+    }
+
+    def "empty values share one instance"() {
+        expect:
+        MaterializationSnapshots.snapshotCollection([], List, false).is(MaterializationSnapshots.snapshotCollection([], List, false))
+        MaterializationSnapshots.snapshotCollection([] as Set, Set, false).is(MaterializationSnapshots.snapshotCollection([] as Set, Set, false))
+        MaterializationSnapshots.snapshotMap([:], Map, false).is(MaterializationSnapshots.snapshotMap([:], Map, false))
+    }
+
+    def "sets of size #size keep insertion order, drop duplicates and find their members"() {
+        given:
+        List members = (0..<size).collect { "e$it".toString() } + [null, "e0"]
+
+        when:
+        Set set = MaterializationSnapshots.snapshotCollection(members, Set, false)
+
+        then:
+        set as List == new LinkedHashSet(members) as List
+        set == new HashSet(members)
+        set.hashCode() == new HashSet(members).hashCode()
+        members.every { set.contains(it) }
+        !set.contains("missing")
+
+        when:
+        set.remove("e0")
+
+        then:
+        thrown(UnsupportedOperationException)
+
+        where:
+        size << [1, 2, 8, 9, 100]
+    }
+
+    def "maps of size #size keep insertion order and find their keys"() {
+        given:
+        Map source = new LinkedHashMap()
+        (0..<size).reverse().each { source["k$it".toString()] = it }
+
+        when:
+        Map map = MaterializationSnapshots.snapshotMap(source, Map, false)
+
+        then:
+        map == source
+        map.hashCode() == source.hashCode()
+        map.keySet() as List == source.keySet() as List
+        map.values() as List == source.values() as List
+        source.every { key, value -> map[key] == value && map.containsKey(key) }
+        !map.containsKey("missing")
+
+        when:
+        map.put("new", 1)
+
+        then:
+        thrown(UnsupportedOperationException)
+
+        where:
+        size << [1, 2, 9, 100]
+    }
+
+    def "sorted sets keep comparator order and navigate like a TreeSet"() {
+        given:
+        TreeSet source = new TreeSet(Comparator.reverseOrder())
+        source.addAll(1..20)
+
+        when:
+        NavigableSet set = MaterializationSnapshots.snapshotCollection(source, NavigableSet, false)
+
+        then:
+        set as List == source as List
+        set.comparator() == source.comparator()
+        set.first() == source.first()
+        set.last() == source.last()
+        set.floor(25) == source.floor(25)
+        set.higher(10) == source.higher(10)
+        set.lower(20) == source.lower(20)
+        set.ceiling(0) == source.ceiling(0)
+        set.subSet(15, true, 5, false) as List == source.subSet(15, true, 5, false) as List
+        set.headSet(10) as List == source.headSet(10) as List
+        set.tailSet(10, false) as List == source.tailSet(10, false) as List
+        set.descendingSet() as List == source.descendingSet() as List
+        set.headSet(10).tailSet(12) as List == source.headSet(10).tailSet(12) as List
+    }
+
+    def "sorted maps keep comparator order and navigate like a TreeMap"() {
+        given:
+        TreeMap source = new TreeMap()
+        ['d', 'b', 'a', 'c', 'e'].each { source[it] = it.toUpperCase() }
+
+        when:
+        NavigableMap map = MaterializationSnapshots.snapshotMap(source, SortedMap, false)
+
+        then:
+        map == source
+        map.keySet() as List == ['a', 'b', 'c', 'd', 'e']
+        map.firstKey() == 'a'
+        map.lastEntry().value == 'E'
+        map.floorKey('bb') == 'b'
+        map.higherEntry('c').key == 'd'
+        map.subMap('b', 'd') == source.subMap('b', 'd')
+        map.headMap('c', true) == source.headMap('c', true)
+        map.descendingMap().keySet() as List == ['e', 'd', 'c', 'b', 'a']
+        map.tailMap('z').isEmpty()
+    }
+
+    def "sorted sources are snapshotted without comparing their members again"() {
+        given:
+        int comparisons = 0
+        Comparator<String> counting = { String left, String right -> comparisons++; right <=> left } as Comparator<String>
+        TreeSet<String> setSource = new TreeSet<>(counting)
+        setSource.addAll(['b', 'd', 'a', 'c'])
+        TreeMap<String, Integer> mapSource = new TreeMap<>(counting)
+        ['b', 'd', 'a', 'c'].eachWithIndex { key, index -> mapSource[key] = index }
+        comparisons = 0
+
+        when:
+        NavigableSet set = MaterializationSnapshots.snapshotCollection(setSource, NavigableSet, false)
+        NavigableMap map = MaterializationSnapshots.snapshotMap(mapSource, NavigableMap, false)
+
+        then:
+        comparisons == 0
+        set as List == ['d', 'c', 'b', 'a']
+        map.keySet() as List == ['d', 'c', 'b', 'a']
+        map.values() as List == [1, 3, 0, 2]
+
+        and: "lookups use the comparator of the source"
+        set.contains('c')
+        map.ceilingKey('bb') == 'b'
+    }
+
+    def "unsorted sources of sorted fields are sorted and deduplicated"() {
+        expect:
+        MaterializationSnapshots.snapshotCollection(['c', 'a', 'b', 'a'], SortedSet, false) as List == ['a', 'b', 'c']
+        MaterializationSnapshots.snapshotMap([c: 1, a: 2, b: 3], SortedMap, false).keySet() as List == ['a', 'b', 'c']
+    }
+
+    def "compact collections survive Java serialization"() {
+        given:
+        def values = [
+                MaterializationSnapshots.snapshotCollection([], List, false),
+                MaterializationSnapshots.snapshotCollection(['a'], List, false),
+                MaterializationSnapshots.snapshotCollection(['a', 'b', 'c'], Set, false),
+                MaterializationSnapshots.snapshotMap([a: 1, b: 2], Map, false),
+                MaterializationSnapshots.snapshotCollection(['b', 'a'], SortedSet, false),
+        ]
+
+        when:
+        def bytes = new ByteArrayOutputStream()
+        new ObjectOutputStream(bytes).withCloseable { it.writeObject(values) }
+        List restored = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).withCloseable { it.readObject() }
+
+        then:
+        restored == values
+        restored[0].is(values[0])
+        restored[1].size() == 1
+    }
+}
@@ -51,6 +51,8 @@ import org.codehaus.groovy.ast.stmt.AssertStatement;
 import org.codehaus.groovy.ast.stmt.BlockStatement;
 import org.codehaus.groovy.ast.stmt.EmptyStatement;
 import org.codehaus.groovy.ast.stmt.ExpressionStatement;
+import org.codehaus.groovy.ast.stmt.IfStatement;
+import org.codehaus.groovy.ast.stmt.ReturnStatement;
 import org.codehaus.groovy.ast.stmt.Statement;
 import org.codehaus.groovy.ast.tools.GenericsUtils;
 import org.codehaus.groovy.classgen.Verifier;
@@ -90,6 +92,17 @@ public class DSLASTTransformation extends AbstractASTTransformation {
     private static final String MODEL_TYPE_PARAMETER = "modelType";
     private static final String BUILDER_PARAMETER = "builder";
     private static final String MATERIALIZATION_TOKEN_PARAMETER = "materializationToken";
+    private static final String FIELD_NAME_PARAMETER = "fieldName";
+    private static final String FIELD_SLOT_PARAMETER = "slot";
+    private static final String FIELD_VALUE_PARAMETER = "value";
+    private static final String SLOT_OF_METHOD = "$klum$slotOf";
+    private static final String GET_BY_SLOT_METHOD = "$klum$get";
+    private static final String SET_BY_SLOT_METHOD = "$klum$set";
+    private static final String ASSIGN_MODEL_RELATIONSHIPS_METHOD = "$klum$assignRelationships";
+    /** Bits of a field slot that hold the index within a single Builder layer; the upper bits hold the layer depth. */
+    private static final int FIELD_SLOT_LAYER_SHIFT = 16;
+    // the Builder is the first parameter of the model constructor and of the relationship assignment
+    private static final int BUILDER_PARAMETER_INDEX = 1;
     private static final String ADD_ELEMENT_TO_COLLECTION = "addElementToCollection";
     private static final String ADD_ELEMENT_TO_MAP = "addElementToMap";
     private static final String ADD_NEW_DSL_ELEMENT_TO_MAP = "addNewDslElementToMap";
@@ -159,6 +172,8 @@ public class DSLASTTransformation extends AbstractASTTransformation {
     InnerClassNode builderClass;
     ClassNode modelImplementationClass;
     final Map<FieldNode, FieldNode> builderFields = new LinkedHashMap<>();
+    private final Map<FieldNode, Integer> builderFieldSlots = new HashMap<>();
+    private MethodNode builderFieldGetter;
 
     @Override
     public void visit(ASTNode[] nodes, SourceUnit source) {
@@ -447,7 +462,10 @@ public class DSLASTTransformation extends AbstractASTTransformation {
     private void moveSingleFieldStateToBuilder(FieldNode modelField) {
         if (CommonAstHelper.isCollectionOrMap(modelField.getType())) {
             validateSupportedCollectionDeclaration(modelField);
-            if (SUPPORTED_COLLECTION_TYPES.contains(modelField.getType().getName()))
+            String ownedStorage = ownedStorageFactory(modelField);
+            if (ownedStorage != null)
+                modelField.setInitialValueExpression(castX(modelField.getType(), callGeneratedModelSupport(ownedStorage)));
+            else if (SUPPORTED_COLLECTION_TYPES.contains(modelField.getType().getName()))
                 initializeCollectionOrMap(modelField);
         }
 
@@ -469,6 +487,25 @@ public class DSLASTTransformation extends AbstractASTTransformation {
         modelField.setInitialValueExpression(null);
     }
 
+    /**
+     * Returns the factory of the storage that the completed model takes over from the Builder without copying,
+     * or null if the field is initialized by its source, keeps a mutable value or holds relationships.
+     * Sorted collections and EnumSets keep their regular storage.
+     */
+    private String ownedStorageFactory(FieldNode modelField) {
+        if (modelField.hasInitialExpression() || keepsMutableValue(modelField)
+                || getFieldType(modelField) == FieldType.BUILDER || isRelationshipField(modelField))
+            return null;
+        ClassNode type = modelField.getType();
+        if (type.equals(LIST_TYPE))
+            return "$klum$ownedList";
+        if (type.equals(SET_TYPE))
+            return "$klum$ownedSet";
+        if (type.equals(MAP_TYPE))
+            return "$klum$ownedMap";
+        return null;
+    }
+
     private void validateSupportedCollectionDeclaration(FieldNode field) {
         if (!SUPPORTED_COLLECTION_TYPES.contains(field.getType().getName())) {
             addCompileError(
@@ -538,6 +575,7 @@ public class DSLASTTransformation extends AbstractASTTransformation {
     }
 
     private void createMaterializationMethods() {
+        createFieldAccessors();
         createBuilderConstructors();
         createModelConstructor();
         createModelAllocationHook();
@@ -587,11 +625,7 @@ public class DSLASTTransformation extends AbstractASTTransformation {
                 return;
             body.addStatement(assignS(
                     attrX(varX("this"), constX(modelField.getName())),
-                    castX(modelField.getType(), callX(
-                            classX(GENERATED_MODEL_SUPPORT),
-                            "$klum$snapshotField",
-                            args(varX(BUILDER_PARAMETER), constX(modelField.getName()))
-                    ))
+                    castX(modelField.getType(), snapshotBuilderField(modelField, builderField))
             ));
         });
 
@@ -619,6 +653,51 @@ public class DSLASTTransformation extends AbstractASTTransformation {
         method.addTo(builderClass);
     }
 
+    /**
+     * Reads a Builder field through its slot accessor and snapshots it according to its declared type.
+     * Scalar values are retained as they are, so only collections, maps and untyped values need a helper.
+     */
+    private Expression snapshotBuilderField(FieldNode modelField, FieldNode builderField) {
+        Expression value = readBuilderField(builderField);
+        ClassNode type = modelField.getType();
+        if (keepsMutableValue(modelField))
+            return value;
+        if (isCollection(type))
+            return callGeneratedModelSupport("$klum$snapshotCollection", value, classX(type.getPlainNodeReference()), constX(false, true));
+        if (isMap(type))
+            return callGeneratedModelSupport("$klum$snapshotMap", value, classX(type.getPlainNodeReference()), constX(false, true));
+        if (isRetainedAsIs(type))
+            return value;
+        return callGeneratedModelSupport("$klum$snapshotValue", value, classX(type.getPlainNodeReference()));
+    }
+
+    private static boolean keepsMutableValue(FieldNode modelField) {
+        return getFieldType(modelField) == FieldType.TRANSIENT || (modelField.getModifiers() & ACC_TRANSIENT) != 0;
+    }
+
+    private static boolean isRetainedAsIs(ClassNode type) {
+        return isPrimitiveType(type) || isPrimitiveType(getUnwrapper(type)) || STRING_TYPE.equals(type) || type.isEnum();
+    }
+
+    /**
+     * Reads a Builder field of this layer inside a model method whose first parameter is the Builder. Fields
+     * the model may access are read directly, private ones through the slot accessor.
+     */
+    private Expression readBuilderField(FieldNode builderField) {
+        if ((builderField.getModifiers() & ACC_PRIVATE) == 0)
+            return SlotAccessorBytecode.readFieldX(BUILDER_PARAMETER_INDEX, builderField);
+        MethodCallExpression read = callX(varX(BUILDER_PARAMETER), GET_BY_SLOT_METHOD, args(constX(builderFieldSlots.get(builderField), true)));
+        read.setImplicitThis(false);
+        read.setMethodTarget(builderFieldGetter);
+        return read;
+    }
+
+    private static Expression callGeneratedModelSupport(String methodName, Expression... arguments) {
+        MethodCallExpression call = callX(classX(GENERATED_MODEL_SUPPORT), methodName, args(arguments));
+        call.setMethodTarget(MethodAstHelper.findMatchingMethod(GENERATED_MODEL_SUPPORT, methodName, List.of()));
+        return call;
+    }
+
     private void createRelationshipAssignmentHook() {
         MethodBuilder method = createProtectedMethod("$assignRelationships")
                 .returning(VOID_TYPE);
@@ -629,21 +708,104 @@ public class DSLASTTransformation extends AbstractASTTransformation {
             method.statement(stmt(parentAssignment));
         }
 
-        builderFields.forEach((modelField, builderField) -> {
-            if (getFieldType(modelField) == FieldType.BUILDER || !isRelationshipField(modelField))
-                return;
+        MethodNode modelAssignment = createModelRelationshipAssignment();
+        if (modelAssignment != null) {
+            MethodCallExpression completedModel = callThisX("getCompletedModel");
+            completedModel.setMethodTarget(MethodAstHelper.findMatchingMethod(
+                    make(InternalKlumBuilder.class), "getCompletedModel", List.of()));
             MethodCallExpression relationshipAssignment = callX(
-                    varX("this"),
-                    "$assignMaterializedRelationship",
-                    args(constX(modelField.getName()))
+                    castX(annotatedClass.getPlainNodeReference(), completedModel),
+                    ASSIGN_MODEL_RELATIONSHIPS_METHOD,
+                    args(varX("this"))
             );
-            relationshipAssignment.setMethodTarget(MethodAstHelper.findMatchingMethod(
-                    GENERATED_KLUM_BUILDER, "$assignMaterializedRelationship", List.of(STRING_TYPE)));
+            relationshipAssignment.setImplicitThis(false);
+            relationshipAssignment.setMethodTarget(modelAssignment);
             method.statement(stmt(relationshipAssignment));
-        });
+        }
         method.addTo(builderClass);
     }
 
+    /**
+     * Creates the model-side assignment of the relationship fields declared by this layer. The method is
+     * overloaded per layer by its Builder parameter and always invoked with an explicit target.
+     */
+    private MethodNode createModelRelationshipAssignment() {
+        BlockStatement body = new BlockStatement();
+        builderFields.forEach((modelField, builderField) -> {
+            if (getFieldType(modelField) == FieldType.BUILDER || !isRelationshipField(modelField))
+                return;
+            body.addStatement(assignS(
+                    attrX(varX("this"), constX(modelField.getName())),
+                    castX(modelField.getType(), materializeBuilderField(modelField, builderField))
+            ));
+        });
+        if (body.isEmpty())
+            return null;
+        return annotatedClass.addMethod(
+                ASSIGN_MODEL_RELATIONSHIPS_METHOD,
+                ACC_PROTECTED | ACC_SYNTHETIC,
+                VOID_TYPE,
+                params(param(builderClass.getPlainNodeReference(), BUILDER_PARAMETER)),
+                NO_EXCEPTIONS,
+                body
+        );
+    }
+
+    private Expression materializeBuilderField(FieldNode modelField, FieldNode builderField) {
+        Expression value = readBuilderField(builderField);
+        ClassNode type = modelField.getType();
+        boolean mutable = keepsMutableValue(modelField);
+        if (isCollection(type))
+            return callGeneratedModelSupport("$klum$snapshotCollection", value, classX(type.getPlainNodeReference()), constX(mutable, true));
+        if (isMap(type))
+            return callGeneratedModelSupport("$klum$snapshotMap", value, classX(type.getPlainNodeReference()), constX(mutable, true));
+        return callGeneratedModelSupport("$klum$completedValue", value);
+    }
+
+    /**
+     * Creates slot-based accessors for the Builder fields of this layer, so the runtime can read and write
+     * them without reflection. Slots combine the depth of the layer with the index of the field, so each
+     * layer dispatches its own slots with a single switch and delegates all others to its parent.
+     */
+    private void createFieldAccessors() {
+        int layerBase = (DslAstHelper.getHierarchyOfDSLObjectAncestors(annotatedClass).size() - 1) << FIELD_SLOT_LAYER_SHIFT;
+        MethodBuilder slotOf = createProtectedMethod(SLOT_OF_METHOD)
+                .returning(int_TYPE)
+                .param(STRING_TYPE, FIELD_NAME_PARAMETER);
+        MethodBuilder getter = createProtectedMethod(GET_BY_SLOT_METHOD)
+                .returning(OBJECT_TYPE)
+                .param(int_TYPE, FIELD_SLOT_PARAMETER);
+        MethodBuilder setter = createProtectedMethod(SET_BY_SLOT_METHOD)
+                .returning(VOID_TYPE)
+                .param(int_TYPE, FIELD_SLOT_PARAMETER)
+                .param(OBJECT_TYPE, FIELD_VALUE_PARAMETER);
+
+        int index = 0;
+        for (FieldNode builderField : builderFields.values()) {
+            builderFieldSlots.put(builderField, layerBase + index);
+            Expression slot = constX(layerBase + index++, true);
+            slotOf.statement(ifS(eqX(varX(FIELD_NAME_PARAMETER), constX(builderField.getName())), returnS(slot)));
+        }
+        List<FieldNode> layerFields = new ArrayList<>(builderFields.values());
+        getter.statement(SlotAccessorBytecode.getterSwitchS(layerBase, layerFields));
+        setter.statement(SlotAccessorBytecode.setterSwitchS(layerBase, layerFields));
+
+        slotOf.doReturn(callSuperAccessor(SLOT_OF_METHOD, List.of(STRING_TYPE), varX(FIELD_NAME_PARAMETER)));
+        getter.doReturn(callSuperAccessor(GET_BY_SLOT_METHOD, List.of(int_TYPE), varX(FIELD_SLOT_PARAMETER)));
+        setter.statement(stmt(callSuperAccessor(SET_BY_SLOT_METHOD, List.of(int_TYPE, OBJECT_TYPE), varX(FIELD_SLOT_PARAMETER), varX(FIELD_VALUE_PARAMETER))));
+
+        slotOf.addTo(builderClass);
+        builderFieldGetter = getter.addTo(builderClass);
+        setter.addTo(builderClass);
+    }
+
+    private MethodCallExpression callSuperAccessor(String methodName, List<ClassNode> parameterTypes, Expression... arguments) {
+        MethodCallExpression call = callSuperX(methodName, args(arguments));
+        ClassNode parentBuilder = dslParent != null ? getBuilderClassOfDslParent() : GENERATED_KLUM_BUILDER;
+        call.setMethodTarget(MethodAstHelper.findMatchingMethod(parentBuilder, methodName, parameterTypes));
+        return call;
+    }
+
     private ClassNode getBuilderClassOfDslParent() {
         return DslAstHelper.getBuilderClassOf(dslParent);
     }
@@ -770,10 +932,44 @@ public class DSLASTTransformation extends AbstractASTTransformation {
     private void createCanonicalMethods() {
         if (!hasAnnotation(annotatedClass, EQUALS_HASHCODE_ANNOT)) {
             createHashCodeIfNotDefined();
+            boolean equalsDefined = hasDeclaredMethod(annotatedClass, EQUALS_METHOD_NAME, 1);
             createEquals(annotatedClass, true, dslParent != null, true, getAllIgnoredFieldNames(), null);
+            if (!equalsDefined)
+                addStructuralHashShortcutToEquals();
         }
     }
 
+    /**
+     * Lets the generated equals reject objects with different cached structural hashes before comparing
+     * their fields. The check is placed behind the leading guards created by {@code createEquals}, i.e. the
+     * null, identity and type checks, so it is only reached for another instance of the model type.
+     */
+    private void addStructuralHashShortcutToEquals() {
+        MethodNode equals = annotatedClass.getDeclaredMethod(EQUALS_METHOD_NAME, params(param(OBJECT_TYPE, "other")));
+        if (equals == null || !(equals.getCode() instanceof BlockStatement))
+            return;
+        List<Statement> statements = ((BlockStatement) equals.getCode()).getStatements();
+        int position = 0;
+        while (position < statements.size() && isEqualsGuard(statements.get(position)))
+            position++;
+        statements.add(position, ifS(
+                callGeneratedModelSupport("$klum$structuralHashesDiffer", varX("this"), varX(equals.getParameters()[0])),
+                returnS(constX(false, true))
+        ));
+    }
+
+    /** Returns true for an {@code if (...) return true/false} without else branch. */
+    private static boolean isEqualsGuard(Statement statement) {
+        if (!(statement instanceof IfStatement ifStatement) || !(ifStatement.getElseBlock() instanceof EmptyStatement))
+            return false;
+        Statement ifBlock = ifStatement.getIfBlock();
+        if (ifBlock instanceof BlockStatement block && block.getStatements().size() == 1)
+            ifBlock = block.getStatements().get(0);
+        return ifBlock instanceof ReturnStatement returnStatement
+                && returnStatement.getExpression() instanceof ConstantExpression constant
+                && constant.getValue() instanceof Boolean;
+    }
+
     private List<String> getAllIgnoredFieldNames() {
         return annotatedClass.getFields()
                 .stream()
@@ -787,6 +983,7 @@ public class DSLASTTransformation extends AbstractASTTransformation {
     }
 
     private static final String HASH_CODE_METHOD_NAME = "hashCode";
+    private static final String EQUALS_METHOD_NAME = "equals";
 
     private void createHashCodeIfNotDefined() {
         if (hasDeclaredMethod(annotatedClass, HASH_CODE_METHOD_NAME, 0))
@@ -800,7 +997,7 @@ public class DSLASTTransformation extends AbstractASTTransformation {
         } else {
             createPublicMethod(HASH_CODE_METHOD_NAME)
                     .returning(ClassHelper.int_TYPE)
-                    .doReturn(constX(0))
+                    .doReturn(callGeneratedModelSupport("$klum$structuralHashCode", varX("this")))
                     .addTo(annotatedClass);
         }
     }
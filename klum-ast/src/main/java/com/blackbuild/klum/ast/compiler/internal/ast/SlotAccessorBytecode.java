@@ -0,0 +1,142 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.ast.compiler.internal.ast;
+
+import groovyjarjarasm.asm.Label;
+import groovyjarjarasm.asm.MethodVisitor;
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.ast.FieldNode;
+import org.codehaus.groovy.ast.expr.Expression;
+import org.codehaus.groovy.ast.stmt.Statement;
+import org.codehaus.groovy.classgen.BytecodeExpression;
+import org.codehaus.groovy.classgen.BytecodeInstruction;
+import org.codehaus.groovy.classgen.BytecodeSequence;
+import org.codehaus.groovy.classgen.asm.BytecodeHelper;
+import org.codehaus.groovy.runtime.ScriptBytecodeAdapter;
+
+import java.util.List;
+
+import static groovyjarjarasm.asm.Opcodes.ALOAD;
+import static groovyjarjarasm.asm.Opcodes.ARETURN;
+import static groovyjarjarasm.asm.Opcodes.CHECKCAST;
+import static groovyjarjarasm.asm.Opcodes.GETFIELD;
+import static groovyjarjarasm.asm.Opcodes.ILOAD;
+import static groovyjarjarasm.asm.Opcodes.INVOKESTATIC;
+import static groovyjarjarasm.asm.Opcodes.PUTFIELD;
+import static groovyjarjarasm.asm.Opcodes.RETURN;
+import static org.codehaus.groovy.ast.ClassHelper.OBJECT_TYPE;
+import static org.codehaus.groovy.ast.ClassHelper.isPrimitiveType;
+
+/**
+ * Bytecode of the slot accessors of a Builder layer. A layer numbers its fields with consecutive slots, so its
+ * accessors dispatch with a single tableswitch and only slots of other layers fall through to the statements
+ * after the switch. Field values are read and written directly, with the same conversion a Groovy assignment
+ * applies.
+ */
+final class SlotAccessorBytecode {
+
+    // local variable indices of the instance accessors: this, slot, value
+    private static final int SLOT_INDEX = 1;
+    private static final int VALUE_INDEX = 2;
+
+    private SlotAccessorBytecode() {
+        // static only
+    }
+
+    /** Returns the value of the field of the slot, boxed if necessary. */
+    static Statement getterSwitchS(int firstSlot, List<FieldNode> fields) {
+        return slotSwitchS(firstSlot, fields, (mv, field) -> {
+            mv.visitVarInsn(ALOAD, 0);
+            visitField(mv, GETFIELD, field);
+            BytecodeHelper.box(mv, field.getType());
+            mv.visitInsn(ARETURN);
+        });
+    }
+
+    /** Assigns the value parameter to the field of the slot. */
+    static Statement setterSwitchS(int firstSlot, List<FieldNode> fields) {
+        return slotSwitchS(firstSlot, fields, (mv, field) -> {
+            mv.visitVarInsn(ALOAD, 0);
+            mv.visitVarInsn(ALOAD, VALUE_INDEX);
+            castTo(mv, field.getType());
+            visitField(mv, PUTFIELD, field);
+            mv.visitInsn(RETURN);
+        });
+    }
+
+    /**
+     * Reads a field of the object held by a local variable without going through its accessor. The caller
+     * must be allowed to access the field.
+     */
+    static Expression readFieldX(int localIndex, FieldNode field) {
+        return new BytecodeExpression(field.getType()) {
+            @Override
+            public void visit(MethodVisitor mv) {
+                mv.visitVarInsn(ALOAD, localIndex);
+                visitField(mv, GETFIELD, field);
+            }
+        };
+    }
+
+    private static Statement slotSwitchS(int firstSlot, List<FieldNode> fields, SlotCase slotCase) {
+        return new BytecodeSequence(new BytecodeInstruction() {
+            @Override
+            public void visit(MethodVisitor mv) {
+                if (fields.isEmpty())
+                    return;
+                Label otherLayer = new Label();
+                Label[] cases = new Label[fields.size()];
+                for (int index = 0; index < cases.length; index++)
+                    cases[index] = new Label();
+                mv.visitVarInsn(ILOAD, SLOT_INDEX);
+                mv.visitTableSwitchInsn(firstSlot, firstSlot + fields.size() - 1, otherLayer, cases);
+                for (int index = 0; index < cases.length; index++) {
+                    mv.visitLabel(cases[index]);
+                    slotCase.emit(mv, fields.get(index));
+                }
+                mv.visitLabel(otherLayer);
+            }
+        });
+    }
+
+    private static void visitField(MethodVisitor mv, int opcode, FieldNode field) {
+        mv.visitFieldInsn(opcode, BytecodeHelper.getClassInternalName(field.getOwner()), field.getName(),
+                BytecodeHelper.getTypeDescription(field.getType()));
+    }
+
+    private static void castTo(MethodVisitor mv, ClassNode type) {
+        if (isPrimitiveType(type)) {
+            BytecodeHelper.unbox(mv, type);
+        } else if (!OBJECT_TYPE.equals(type)) {
+            BytecodeHelper.visitClassLiteral(mv, type);
+            mv.visitMethodInsn(INVOKESTATIC, BytecodeHelper.getClassInternalName(ScriptBytecodeAdapter.class),
+                    "castToType", "(Ljava/lang/Object;Ljava/lang/Class;)Ljava/lang/Object;", false);
+            mv.visitTypeInsn(CHECKCAST, BytecodeHelper.getClassInternalName(type));
+        }
+    }
+
+    private interface SlotCase {
+        void emit(MethodVisitor mv, FieldNode field);
+    }
+}
@@ -313,6 +313,134 @@ class BuilderClassSpec extends AbstractDSLSpec {
         builder.completedModel.is(instance)
     }
 
+    def "Builder fields are accessed through generated slot accessors"() {
+        given:
+        createClass('''
+            package pk
+
+            @DSL
+            class Parent {
+                String name
+            }
+
+            @DSL
+            class Child extends Parent {
+                int count
+                List<String> values
+            }
+        ''')
+        def builder
+
+        when:
+        instance = getClass("pk.Child").Create.With {
+            builder = delegate
+            delegate.setInstanceAttribute("name", "parent value")
+            delegate.setInstanceAttribute("count", 5)
+            delegate.setInstanceAttribute("values", ["a", "b"])
+        }
+
+        then:
+        builder.$klum$slotOf("name") == 0
+        builder.$klum$slotOf("count") == 0x10000
+        builder.$klum$slotOf("values") == 0x10001
+        builder.$klum$slotOf("unknown") == -1
+        builder.getInstanceAttribute("count") == 5
+        instance.name == "parent value"
+        instance.count == 5
+        instance.values == ["a", "b"]
+    }
+
+    def "slot accessors dispatch the slots of every layer and convert assigned values"() {
+        given:
+        createClass('''
+            package pk
+
+            @DSL
+            class Base {
+                String first
+                long size
+            }
+
+            @DSL
+            class Middle extends Base {
+                String second
+            }
+
+            @DSL
+            class Leaf extends Middle {
+                int count
+                String third
+            }
+        ''')
+        def builder
+        def suffix = "value"
+
+        when:
+        instance = getClass("pk.Leaf").Create.With {
+            builder = delegate
+            delegate.setInstanceAttribute("first", "first $suffix")
+            delegate.setInstanceAttribute("size", 7)
+            delegate.setInstanceAttribute("second", "second")
+            delegate.setInstanceAttribute("count", 5L)
+            delegate.setInstanceAttribute("third", "third")
+        }
+
+        then:
+        builder.$klum$get(builder.$klum$slotOf("first")) == "first value"
+        builder.$klum$get(builder.$klum$slotOf("size")) == 7L
+        builder.$klum$get(builder.$klum$slotOf("second")) == "second"
+        builder.$klum$get(builder.$klum$slotOf("count")) == 5
+        builder.$klum$get(builder.$klum$slotOf("third")) == "third"
+        instance.first == "first value"
+        instance.size == 7L
+        instance.second == "second"
+        instance.count == 5
+        instance.third == "third"
+    }
+
+    def "model constructors and relationship assignment read Builder fields directly"() {
+        given:
+        createClass('''
+            package pk
+
+            @DSL
+            class Parent {
+                String name
+                SortedSet<String> tags
+                Child single
+                Map<String, Child> children
+            }
+
+            @DSL
+            class Child {
+                @Key String id
+            }
+        ''')
+
+        when:
+        instance = getClass("pk.Parent").Create.With {
+            name "parent"
+            tags "b", "a"
+            single("s")
+            children {
+                child("c1")
+            }
+        }
+
+        then:
+        getClass("pk.Parent").getDeclaredMethod('$klum$assignRelationships', getBuilderClass("pk.Parent")).synthetic
+        instance.name == "parent"
+        instance.tags as List == ["a", "b"]
+        instance.single.id == "s"
+        instance.children.c1.id == "c1"
+
+        when:
+        instance.tags.add("c")
+
+        then:
+        thrown(UnsupportedOperationException)
+    }
+
     @Issue("99")
     def "config closures for inner objects have access to their owner field with static type checking enabled"() {
         given:
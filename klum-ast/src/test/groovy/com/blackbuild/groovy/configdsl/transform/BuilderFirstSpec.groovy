@@ -29,6 +29,7 @@ import com.blackbuild.klum.ast.runtime.generated.GeneratedMaterializationToken
 import com.blackbuild.klum.ast.runtime.KlumBuilder
 import com.blackbuild.klum.ast.runtime.internal.FactoryHelper
 import com.blackbuild.klum.ast.runtime.KlumModelException
+import com.blackbuild.klum.ast.runtime.KlumModelInterning
 import com.blackbuild.klum.ast.runtime.KlumObjectSupport
 import com.blackbuild.klum.ast.runtime.KlumSchemaSupport
 import org.codehaus.groovy.control.MultipleCompilationErrorsException
@@ -447,10 +448,15 @@ class BuilderFirstSpec extends AbstractDSLSpec {
         instance.sortedMap.comparator().compare("first", "second") > 0
         instance.navigableMap.comparator().compare("first", "second") > 0
 
-        and: "the snapshot no longer shares storage with its Builder"
-        builder.list.add("builder-only")
-        builder.map.put("builder-only", "value") == null
-        instance.list == ["first", "second"]
+        and: "the sorted snapshots no longer share storage with their Builder"
+        builder.sortedMap.put("builder-only", "value") == null
+        !instance.sortedMap.containsKey("builder-only")
+
+        when: "the storage the model took over from its Builder is mutated"
+        builder.map.put("builder-only", "value")
+
+        then:
+        thrown(UnsupportedOperationException)
         !instance.map.containsKey("builder-only")
 
         when: "a published collection is mutated"
@@ -914,4 +920,323 @@ class BuilderFirstSpec extends AbstractDSLSpec {
         support.modelPath == "<root>"
         support.validation.result != null
     }
+
+    def "interning shares equal values but keeps one object per occurrence"() {
+        given:
+        createClass '''
+            package pk
+
+            @DSL
+            class Root {
+                List<Service> services
+            }
+
+            @DSL
+            class Service {
+                String name
+                Limits limits
+            }
+
+            @DSL
+            class Limits {
+                int cpu
+                List<String> zones
+                Map<String, String> labels
+            }
+        '''
+        KlumModelInterning.enabled = true
+        long sharedBefore = KlumModelInterning.sharedCount
+
+        when:
+        instance = clazz.Create.With {
+            services {
+                ['a', 'b', 'c'].each { serviceName ->
+                    service(name: serviceName) {
+                        limits(cpu: 2) {
+                            zones(serviceName == 'c' ? 'z2' : 'z1')
+                            labels(tier: 'backend')
+                        }
+                    }
+                }
+            }
+        }
+        def limits = instance.services*.limits
+
+        then: "each occurrence is its own object with its own path"
+        !limits[0].is(limits[1])
+        limits.withIndex().every { entry, index ->
+            KlumObjectSupport.of(entry).modelPath == "<root>.services[$index].limits".toString()
+        }
+
+        and: "equal values are shared"
+        limits[0].zones.is(limits[1].zones)
+        !limits[0].zones.is(limits[2].zones)
+        limits[0].labels.is(limits[1].labels)
+        limits[0].labels.is(limits[2].labels)
+        limits*.zones == [['z1'], ['z1'], ['z2']]
+        KlumModelInterning.sharedCount == sharedBefore + 3
+
+        cleanup:
+        KlumModelInterning.enabled = false
+    }
+
+    def "interning never shares transient values"() {
+        given:
+        createClass '''
+            package pk
+
+            @DSL
+            class Root {
+                List<Service> services
+            }
+
+            @DSL
+            class Service {
+                @Field(FieldType.TRANSIENT) List<String> notes
+            }
+        '''
+        KlumModelInterning.enabled = true
+
+        when:
+        instance = clazz.Create.With {
+            services {
+                service { delegate.setInstanceAttribute('notes', ['a']) }
+                service { delegate.setInstanceAttribute('notes', ['a']) }
+            }
+        }
+
+        then:
+        instance.services[0].notes == instance.services[1].notes
+        !instance.services[0].notes.is(instance.services[1].notes)
+
+        cleanup:
+        KlumModelInterning.enabled = false
+    }
+
+    def "interning only shares collections whose members are immutable"() {
+        given:
+        createClass '''
+            package pk
+
+            @DSL
+            class Root {
+                List<Service> services
+            }
+
+            @DSL
+            class Service {
+                List<String> tags
+                List<Date> dates
+                Map<String, List<String>> groups
+            }
+        '''
+        KlumModelInterning.enabled = true
+
+        when:
+        instance = clazz.Create.With {
+            services {
+                2.times {
+                    service {
+                        delegate.setInstanceAttribute('tags', ['a', 'b'])
+                        delegate.setInstanceAttribute('dates', [new Date(0)])
+                        delegate.setInstanceAttribute('groups', [admins: ['x']])
+                    }
+                }
+            }
+        }
+        def (first, second) = instance.services
+
+        then:
+        first.tags.is(second.tags)
+
+        and: "collections with mutable members stay separate"
+        first.dates == second.dates
+        !first.dates.is(second.dates)
+        first.groups == second.groups
+        !first.groups.is(second.groups)
+
+        cleanup:
+        KlumModelInterning.enabled = false
+    }
+
+    def "equal siblings are not shared when interning is disabled"() {
+        given:
+        createClass '''
+            package pk
+
+            @DSL
+            class Root {
+                List<Port> ports
+            }
+
+            @DSL
+            class Port {
+                int number
+            }
+        '''
+
+        when:
+        instance = clazz.Create.With {
+            ports {
+                port(number: 80)
+                port(number: 80)
+            }
+        }
+
+        then:
+        instance.ports[0] == instance.ports[1]
+        !instance.ports[0].is(instance.ports[1])
+    }
+
+    def "completed models take over List, Set and Map storage from their Builders"() {
+        given:
+        createClass '''
+            package pk
+
+            @DSL
+            class Settings {
+                List<String> names
+                Set<Integer> ports
+                Map<String, String> labels
+                @Field(FieldType.TRANSIENT) List<String> notes
+            }
+        '''
+
+        when:
+        def builder
+        instance = clazz.Create.With {
+            builder = delegate
+            names "a", "b"
+            (1..20).each { port it }
+            labels(team: "core", tier: "1")
+            delegate.notes.add("draft")
+        }
+
+        then: "no copy is made"
+        instance.names.is(builder.names)
+        instance.ports.is(builder.ports)
+        instance.labels.is(builder.labels)
+        instance.names == ["a", "b"]
+        instance.ports.toList() == (1..20).toList()
+        instance.labels.keySet().toList() == ["team", "tier"]
+
+        when: "the taken over storage is modified through its Builder"
+        builder.ports.remove(5)
+
+        then:
+        thrown(UnsupportedOperationException)
+        instance.ports.contains(5)
+
+        when: "a Map view of the taken over storage is modified"
+        instance.labels.entrySet().first().value = "other"
+
+        then:
+        thrown(UnsupportedOperationException)
+        instance.labels.team == "core"
+
+        when: "transient fields stay mutable"
+        instance.notes.add("final")
+
+        then:
+        instance.notes == ["draft", "final"]
+    }
+
+    def "Builder Set and Map storage fails fast on concurrent modification"() {
+        given:
+        createClass '''
+            package pk
+
+            @DSL
+            class Settings {
+                Set<Integer> ports
+                Map<String, String> labels
+            }
+        '''
+
+        when:
+        clazz.Create.With {
+            ports 1, 2, 3
+            labels(team: "core", tier: "1")
+            for (port in delegate.ports)
+                delegate.ports.add(port + 10)
+        }
+
+        then:
+        thrown(ConcurrentModificationException)
+
+        when:
+        clazz.Create.With {
+            labels(team: "core", tier: "1")
+            for (key in delegate.labels.keySet())
+                delegate.labels.remove(key)
+        }
+
+        then:
+        thrown(ConcurrentModificationException)
+
+        when: "removing through the iterator and replacing values is allowed"
+        instance = clazz.Create.With {
+            ports 1, 2, 3
+            labels(team: "core", tier: "1")
+            def iterator = delegate.ports.iterator()
+            while (iterator.hasNext())
+                if (iterator.next() == 2)
+                    iterator.remove()
+            for (key in delegate.labels.keySet())
+                delegate.labels.put(key, "other")
+        }
+
+        then:
+        instance.ports.toList() == [1, 3]
+        instance.labels == [team: "other", tier: "other"]
+    }
+
+    def "deep models are built and validated without recursing per level"() {
+        given:
+        createClass '''
+            package pk
+
+            @DSL
+            class Stage {
+                @Required String name
+                Stage next
+            }
+        '''
+        def Stage = clazz
+        int depth = 5_000
+        Throwable failure = null
+
+        when: "the chain is built on a thread whose stack holds only a fraction of its depth in recursive frames"
+        def thread = new Thread(null, {
+            try {
+                instance = Stage.Create.With(name: 'stage0') {
+                    KlumBuilder current = (KlumBuilder) delegate
+                    for (int i = 1; i < depth; i++) {
+                        KlumBuilder next = Stage.Create.AsBuilder().With(name: 'stage' + i)
+                        current.setSingleField('next', next)
+                        current = next
+                    }
+                }
+            } catch (Throwable throwable) {
+                failure = throwable
+            }
+        }, 'deep-model', 256 * 1024)
+        thread.start()
+        thread.join()
+
+        then:
+        failure == null
+
+        when:
+        def last = instance
+        int length = 1
+        while (last.next != null) {
+            last = last.next
+            length++
+        }
+
+        then:
+        length == depth
+        last.name == 'stage' + (depth - 1)
+    }
 }
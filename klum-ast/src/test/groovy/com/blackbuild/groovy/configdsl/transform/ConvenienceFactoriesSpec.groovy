@@ -24,11 +24,16 @@
 package com.blackbuild.klum.ast
 
 import com.blackbuild.klum.ast.runtime.KlumModelException
+import com.blackbuild.klum.ast.runtime.KlumScriptCache
 import com.blackbuild.klum.ast.runtime.validation.KlumValidationException
 import org.junit.Rule
 import org.junit.rules.TemporaryFolder
 import spock.lang.Issue
 
+import java.util.concurrent.Executor
+import java.util.concurrent.Executors
+import java.util.concurrent.RejectedExecutionException
+
 @SuppressWarnings("GrPackage")
 class ConvenienceFactoriesSpec extends AbstractDSLSpec {
 
@@ -398,6 +403,202 @@ class ConvenienceFactoriesSpec extends AbstractDSLSpec {
         instance.value == "bla"
     }
 
+    def "convenience factories reuse scripts compiled from unchanged text"() {
+        given:
+        createClass('''
+            package pk
+
+            @DSL
+            class Foo {
+                String value
+            }
+        ''')
+        File src = temp.newFile("foo.config")
+        src.text = '''
+            value "bla"
+        '''
+        long hits = KlumScriptCache.hitCount
+        long misses = KlumScriptCache.missCount
+
+        when:
+        def first = clazz.Create.From(src)
+        def second = clazz.Create.From(src)
+
+        then:
+        first.value == "bla"
+        second.value == "bla"
+        !first.is(second)
+        KlumScriptCache.missCount == misses + 1
+        KlumScriptCache.hitCount == hits + 1
+
+        when: "the file changes"
+        src.text = '''
+            value "blub"
+        '''
+        instance = clazz.Create.From(src)
+
+        then:
+        instance.value == "blub"
+        KlumScriptCache.missCount == misses + 2
+
+        when: "the script is invalidated"
+        KlumScriptCache.invalidate(src.text)
+        instance = clazz.Create.From(src)
+
+        then:
+        instance.value == "blub"
+        KlumScriptCache.missCount == misses + 3
+        KlumScriptCache.hitCount == hits + 1
+    }
+
+    def "compiled scripts are stored in the script cache directory"() {
+        given:
+        createClass('''
+            package pk
+
+            @DSL
+            class Foo {
+                String value
+            }
+        ''')
+        File directory = temp.newFolder("scripts")
+        KlumScriptCache.directory = directory.toPath()
+        def configText = '''
+            [1, 2].each { value "bla$it" }
+        '''
+
+        when:
+        instance = clazz.Create.From(configText)
+        File stored = directory.listFiles().find { it.name.endsWith(".klumscript") }
+
+        then:
+        instance.value == "bla2"
+        stored != null
+
+        when: "the script is no longer in memory"
+        KlumScriptCache.invalidateAll()
+        stored.lastModified = 1000
+        instance = clazz.Create.From(configText)
+
+        then: "it is loaded from the directory"
+        instance.value == "bla2"
+        stored.lastModified() == 1000
+
+        when: "the stored script is corrupt"
+        KlumScriptCache.invalidateAll()
+        stored.bytes = [1, 2, 3] as byte[]
+        instance = clazz.Create.From(configText)
+
+        then: "it is compiled and stored again"
+        instance.value == "bla2"
+        stored.size() > 3
+
+        cleanup:
+        KlumScriptCache.directory = null
+    }
+
+    def "stored scripts that no longer link are compiled again"() {
+        given:
+        createClass('''
+            package pk
+
+            @DSL
+            class Foo {
+                String value
+            }
+        ''')
+        File directory = temp.newFolder("scripts")
+        KlumScriptCache.directory = directory.toPath()
+        def configText = '''
+            value "bla"
+        '''
+        clazz.Create.From(configText)
+        File stored = directory.listFiles().find { it.name.endsWith(".klumscript") }
+
+        when: "the stored entry keeps its key, but its bytecode is no valid class"
+        def bytes = new ByteArrayOutputStream()
+        new DataInputStream(new ByteArrayInputStream(stored.bytes)).withCloseable { input ->
+            new DataOutputStream(bytes).withCloseable { output ->
+                output.writeInt(input.readInt())
+                output.writeUTF(input.readUTF())
+                String mainClass = input.readUTF()
+                output.writeUTF(mainClass)
+                int references = input.readInt()
+                output.writeInt(references)
+                references.times { output.writeUTF(input.readUTF()) }
+                output.writeUTF(input.readUTF())
+                output.writeInt(1)
+                output.writeUTF(mainClass)
+                output.writeInt(3)
+                output.write([1, 2, 3] as byte[])
+            }
+        }
+        stored.bytes = bytes.toByteArray()
+        KlumScriptCache.invalidateAll()
+        instance = clazz.Create.From(configText)
+
+        then: "it is compiled and stored again"
+        instance.value == "bla"
+        stored.size() > bytes.size()
+
+        cleanup:
+        KlumScriptCache.directory = null
+    }
+
+    def "stored scripts whose referenced classes changed are compiled again"() {
+        given:
+        createClass('''
+            package pk
+
+            @DSL
+            class Foo {
+                String value
+            }
+
+            class Helper {
+                static String name() { "bla" }
+            }
+        ''')
+        File directory = temp.newFolder("scripts")
+        KlumScriptCache.directory = directory.toPath()
+        def configText = '''
+            value pk.Helper.name()
+        '''
+        clazz.Create.From(configText)
+        File stored = directory.listFiles().find { it.name.endsWith(".klumscript") }
+
+        when: "the fingerprint of the referenced classes no longer matches"
+        def bytes = new ByteArrayOutputStream()
+        List<String> references = []
+        new DataInputStream(new ByteArrayInputStream(stored.bytes)).withCloseable { input ->
+            new DataOutputStream(bytes).withCloseable { output ->
+                output.writeInt(input.readInt())
+                output.writeUTF(input.readUTF())
+                output.writeUTF(input.readUTF())
+                int count = input.readInt()
+                output.writeInt(count)
+                count.times {
+                    references << input.readUTF()
+                    output.writeUTF(references.last())
+                }
+                input.readUTF()
+                output.writeUTF("stale")
+                output.write(input.readAllBytes())
+            }
+        }
+        stored.bytes = bytes.toByteArray()
+        KlumScriptCache.invalidateAll()
+        instance = clazz.Create.From(configText)
+
+        then: "the referenced helper is recorded, and the entry is compiled and stored again"
+        references.contains("pk/Helper")
+        instance.value == "bla"
+        stored.bytes != bytes.toByteArray()
+
+        cleanup:
+        KlumScriptCache.directory = null
+    }
+
     def "keyed convenience factory from file"() {
         given:
         createClass('''
@@ -448,6 +649,138 @@ class ConvenienceFactoriesSpec extends AbstractDSLSpec {
         instance.name == "blub"
     }
 
+    def "keyed convenience factory from directory creates roots concurrently"() {
+        given:
+        createClass('''
+            package pk
+
+            @DSL
+            class Foo {
+                @Key String name
+                String value
+                String origin
+            }
+        ''')
+        File directory = temp.newFolder("models")
+        20.times { index ->
+            new File(directory, "foo${index.toString().padLeft(2, '0')}.config").text = """
+                value "bla$index"
+            """
+        }
+        new File(directory, "ignored.txt").text = "value 'ignored'"
+        def executor = Executors.newFixedThreadPool(4)
+
+        when:
+        Map<String, Object> models = null
+        clazz.Template.With(origin: 'template') {
+            models = clazz.Create.FromDirectory(directory.toPath(), "*.config", executor)
+        }
+
+        then:
+        models.keySet() as List == (0..<20).collect { "foo${it.toString().padLeft(2, '0')}".toString() }
+        models.every { key, model -> model.name == key && model.origin == 'template' }
+        models.foo07.value == "bla7"
+
+        cleanup:
+        executor?.shutdown()
+    }
+
+    def "convenience factory from all URLs reports validation failures of all roots together"() {
+        given:
+        createClass('''
+            package pk
+
+            @DSL
+            class Foo {
+                @Key String name
+                @Required String value
+            }
+        ''')
+        File valid = temp.newFile("valid.config")
+        valid.text = 'value "bla"'
+        File first = temp.newFile("first.config")
+        first.text = ''
+        File second = temp.newFile("second.config")
+        second.text = ''
+        def executor = Executors.newFixedThreadPool(3)
+
+        when:
+        clazz.Create.FromAll([valid, first, second]*.toURI()*.toURL(), executor)
+
+        then:
+        KlumValidationException e = thrown()
+        e.validationResults.size() == 2
+
+        cleanup:
+        executor?.shutdown()
+    }
+
+    def "convenience factory from all URLs creates roots with the caller's context class loader"() {
+        given:
+        createClass('''
+            package pk
+
+            @DSL
+            class Foo {
+                @Key String name
+                String loader
+            }
+        ''')
+        File first = temp.newFile("first.config")
+        first.text = 'loader(Thread.currentThread().contextClassLoader.is(pk.Foo.classLoader) ? "caller" : "other")'
+        File second = temp.newFile("second.config")
+        second.text = first.text
+        def executor = Executors.newFixedThreadPool(2, { Runnable task ->
+            def thread = new Thread(task)
+            thread.contextClassLoader = ClassLoader.systemClassLoader
+            thread
+        })
+
+        when:
+        Map<String, Object> models = clazz.Create.FromAll([first, second]*.toURI()*.toURL(), executor)
+
+        then:
+        models.values()*.loader == ["caller", "caller"]
+
+        cleanup:
+        executor?.shutdown()
+    }
+
+    def "convenience factory from all URLs still joins submitted roots if the executor rejects one"() {
+        given:
+        createClass('''
+            package pk
+
+            @DSL
+            class Foo {
+                @Key String name
+                String value
+            }
+        ''')
+        File first = temp.newFile("first.config")
+        first.text = 'value "bla"'
+        File second = temp.newFile("second.config")
+        second.text = 'value "blub"'
+        def pool = Executors.newSingleThreadExecutor()
+        def submitted = 0
+        Executor executor = { Runnable task ->
+            if (submitted++ > 0)
+                throw new RejectedExecutionException("full")
+            pool.execute(task)
+        }
+
+        when:
+        clazz.Create.FromAll([first, second]*.toURI()*.toURL(), executor)
+
+        then:
+        KlumModelException e = thrown()
+        e.message.contains("1 of 2")
+        e.cause instanceof RejectedExecutionException
+
+        cleanup:
+        pool?.shutdown()
+    }
+
     def "convenience factory from String with imports"() {
         given:
         createClass('''
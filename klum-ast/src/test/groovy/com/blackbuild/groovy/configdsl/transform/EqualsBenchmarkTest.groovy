@@ -0,0 +1,106 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.ast
+
+import spock.lang.IgnoreIf
+import spock.lang.Tag
+
+/**
+ * Measures the cost of comparing large model trees. Run with {@code -Dklum.benchmark=true}.
+ */
+@Tag("benchmark")
+@IgnoreIf(value = { !Boolean.getBoolean('klum.benchmark') }, reason = "Benchmarks only run with -Dklum.benchmark=true")
+class EqualsBenchmarkTest extends AbstractDSLSpec {
+
+    static final int BRANCHES = 100
+    static final int LEAVES = 100
+    static final int RUNS = 200
+
+    def "equal vs. unequal trees with 10k nodes"() {
+        given:
+        createClass '''
+            package pk
+
+            @DSL
+            class Tree {
+                String name
+                List<Branch> branches
+            }
+
+            @DSL
+            class Branch {
+                String name
+                List<Leaf> leaves
+            }
+
+            @DSL
+            class Leaf {
+                String name
+                int weight
+            }
+        '''
+        def left = tree('tree', -1)
+        def right = tree('tree', -1)
+        def differentRoot = tree('other', -1)
+        def differentLeaf = tree('tree', BRANCHES * LEAVES - 1)
+        3.times { measure(left, right); measure(left, differentLeaf) }
+
+        when:
+        long equal = measure(left, right)
+        long unequalRoot = measure(left, differentRoot)
+        long unequalLeaf = measure(left, differentLeaf)
+
+        then:
+        left == right
+        left != differentRoot
+        left != differentLeaf
+        println String.format("equal trees: %.1f us/comparison", equal / 1000d / RUNS)
+        println String.format("trees differing at the root: %.1f us/comparison", unequalRoot / 1000d / RUNS)
+        println String.format("trees differing in the last leaf: %.1f us/comparison", unequalLeaf / 1000d / RUNS)
+    }
+
+    private Object tree(String treeName, int changedLeaf) {
+        int index = 0
+        return clazz.Create.With(name: treeName) {
+            branches {
+                BRANCHES.times { b ->
+                    branch(name: "branch$b") {
+                        leaves {
+                            LEAVES.times { l ->
+                                leaf(name: "leaf$l", weight: index++ == changedLeaf ? -1 : l)
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static long measure(Object left, Object right) {
+        long start = System.nanoTime()
+        for (int i = 0; i < RUNS; i++)
+            left.equals(right)
+        return System.nanoTime() - start
+    }
+}
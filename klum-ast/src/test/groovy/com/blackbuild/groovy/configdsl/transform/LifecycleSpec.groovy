@@ -26,9 +26,16 @@ package com.blackbuild.klum.ast
 
 import com.blackbuild.klum.ast.runtime.DefaultKlumPhase
 import com.blackbuild.klum.ast.runtime.KlumModelException
+import com.blackbuild.klum.ast.runtime.KlumBuilder
 import com.blackbuild.klum.ast.runtime.KlumPhase
+import com.blackbuild.klum.ast.runtime.internal.DefaultPhase
+import com.blackbuild.klum.ast.runtime.internal.OwnerPhase
+import com.blackbuild.klum.ast.runtime.internal.PostTreePhase
+import com.blackbuild.klum.ast.runtime.internal.layer3.ModelVisitor
+import com.blackbuild.klum.ast.runtime.internal.layer3.StructureUtil
 import com.blackbuild.klum.ast.runtime.internal.process.PhaseDriver
 import org.codehaus.groovy.control.MultipleCompilationErrorsException
+import org.jetbrains.annotations.NotNull
 import spock.lang.Ignore
 import spock.lang.Issue
 
@@ -460,6 +467,54 @@ class LifecycleSpec extends AbstractDSLSpec {
         exception.cause.message == 'expected checked lifecycle failure'
     }
 
+    def "lifecycle callbacks resolved once per Builder class run for every instance"() {
+        given:
+        createClass '''
+            package pk
+
+            @DSL
+            class Container {
+                List<Parent> elements
+            }
+
+            @DSL
+            class Parent {
+                static List<String> calls = []
+                String name
+
+                @PostCreate
+                void first() {
+                    calls << 'Parent.first'
+                }
+
+                @PostCreate
+                void second() {
+                    calls << 'Parent.second'
+                }
+            }
+
+            @DSL
+            class Child extends Parent {
+                @PostCreate
+                void second() {
+                    calls << 'Child.second'
+                }
+            }
+        '''
+        def Child = getClass('pk.Child')
+
+        when:
+        create('pk.Container') {
+            elements {
+                element(Child, name: 'a')
+                element(Child, name: 'b')
+            }
+        }
+
+        then:
+        getClass('pk.Parent').calls == ['Parent.first', 'Child.second', 'Parent.first', 'Child.second']
+    }
+
     def "lifecycle methods are moved to Builder class and made protected"() {
         given:
         createClass '''
@@ -754,4 +809,275 @@ class LifecycleSpec extends AbstractDSLSpec {
         instance.action == "com.blackbuild.klum.ast.runtime.internal.process.ApplyLaterPhase"
     }
 
+    def "applyLater closures of a phase run in registration order"() {
+        given:
+        createClass('''
+            package pk
+
+            @DSL
+            class Container {
+                String name
+                List<Element> elements
+            }
+
+            @DSL
+            class Element {
+                String name
+            }
+        ''')
+        def calls = []
+
+        when:
+        instance = create('pk.Container') {
+            elements {
+                element(name: 'a') {
+                    applyLater { calls << name }
+                }
+                element(name: 'b') {
+                    applyLater(DefaultKlumPhase.DEFAULT) { calls << name + ' in DEFAULT' }
+                    applyLater { calls << name }
+                }
+            }
+            applyLater { calls << 'container' }
+        }
+
+        then:
+        calls == ['a', 'b', 'container', 'b in DEFAULT']
+    }
+
+    def "applyLater closures of a replaced Builder do not run"() {
+        given:
+        createClass('''
+            package pk
+
+            @DSL
+            class Container {
+                Element element
+            }
+
+            @DSL
+            class Element {
+                String name
+            }
+        ''')
+        def calls = []
+
+        when:
+        instance = create('pk.Container') {
+            element(name: 'replaced') {
+                applyLater { calls << name }
+            }
+            element(name: 'kept') {
+                applyLater { calls << name }
+            }
+        }
+
+        then:
+        calls == ['kept']
+    }
+
+    def "applyLater closures scheduled during their phase run for Builders the phase has not reached yet"() {
+        given:
+        createClass('''
+            package pk
+
+            @DSL
+            class Container {
+                Element element
+            }
+
+            @DSL
+            class Element {
+                String name
+            }
+        ''')
+        def calls = []
+
+        when:
+        instance = create('pk.Container') {
+            applyLater {
+                element.applyLater { calls << 'element' }
+                applyLater { calls << 'container again' }
+            }
+            element(name: 'a')
+        }
+
+        then:
+        calls == ['element']
+    }
+
+    def "applyLater closures of children added by an earlier closure of the same phase run"() {
+        given:
+        createClass('''
+            package pk
+
+            @DSL
+            class Container {
+                List<Element> elements
+            }
+
+            @DSL
+            class Element {
+                String name
+            }
+        ''')
+        def calls = []
+
+        when:
+        instance = create('pk.Container') {
+            element(name: 'first') {
+                applyLater { calls << name }
+            }
+            applyLater {
+                element(name: 'added') {
+                    applyLater { calls << name }
+                }
+            }
+        }
+
+        then:
+        calls == ['first', 'added']
+        instance.elements*.name == ['first', 'added']
+    }
+
+    def "Builder phases are only applied to types whose schema needs them"() {
+        given:
+        createClass '''
+            package pk
+
+            @DSL
+            class Container {
+                List<Element> elements
+            }
+
+            @DSL
+            class Element {
+                String name
+            }
+
+            @DSL
+            class OwnedElement extends Element {
+                @Owner Container container
+                @Default(code = { 'default' })
+                String value
+            }
+        '''
+        def Container = getClass('pk.Container')
+        def Element = getClass('pk.Element')
+        def OwnedElement = getClass('pk.OwnedElement')
+
+        expect:
+        !new OwnerPhase().appliesTo(Container)
+        !new OwnerPhase().appliesTo(Element)
+        new OwnerPhase().appliesTo(OwnedElement)
+        new DefaultPhase().appliesTo(OwnedElement)
+        !new PostTreePhase().appliesTo(OwnedElement)
+
+        when: 'only a subtype present in the construction needs the phases'
+        instance = create('pk.Container') {
+            elements {
+                element(name: 'plain')
+                element(OwnedElement, name: 'owned')
+            }
+        }
+
+        then:
+        instance.elements[1].container.is(instance)
+        instance.elements[1].value == 'default'
+    }
+
+
+    def "traversals started while another one is running visit every Builder once"() {
+        given:
+        createClass '''
+            package pk
+
+            @DSL
+            class Container {
+                List<Element> elements
+
+                @PostTree
+                void postTree() {
+                    Hooks.onPostTree.call(this)
+                }
+            }
+
+            @DSL
+            class Element {
+                static List<String> calls = []
+                String name
+
+                @PostTree
+                void postTree() {
+                    calls << name
+                }
+            }
+
+            class Hooks {
+                static Closure onPostTree
+            }
+        '''
+        def nested = []
+        def visitor = new ModelVisitor() {
+            @Override
+            void visit(@NotNull String path, @NotNull Object element, Object container, String nameOfFieldInContainer) {
+                nested << path
+            }
+
+            @Override
+            ModelVisitor.Action shouldVisit(@NotNull String path, @NotNull Object element, Object container, String nameOfFieldInContainer) {
+                element instanceof KlumBuilder ? ModelVisitor.Action.HANDLE : ModelVisitor.Action.SKIP
+            }
+        }
+        getClass('pk.Hooks').onPostTree = { builder -> StructureUtil.visitBuilders(builder, visitor) }
+
+        when:
+        create('pk.Container') {
+            elements {
+                element(name: 'a')
+                element(name: 'b')
+            }
+        }
+
+        then:
+        nested == ['<root>', '<root>.elements[0]', '<root>.elements[1]']
+        getClass('pk.Element').calls == ['a', 'b']
+    }
+
+    def "closures scheduled during AUTO_CREATE run before the OWNER phase"() {
+        given:
+        createClass('''
+            package pk
+
+            import com.blackbuild.klum.ast.layer3.AutoCreate
+            import com.blackbuild.klum.ast.runtime.internal.process.PhaseDriver
+
+            @DSL
+            class Foo {
+                static List<String> calls = []
+                Bar bar
+
+                @AutoCreate void autoCreate() {
+                    applyLater { calls << 'applyLater' }
+                    PhaseDriver.postPhaseApply { calls << 'postPhase' }
+                }
+            }
+
+            @DSL
+            class Bar {
+                @Owner
+                void setFooAsOwner(Foo foo) {
+                    Foo.calls << 'owner'
+                }
+            }
+        ''')
+
+        when:
+        create('pk.Foo') {
+            bar()
+        }
+
+        then:
+        clazz.calls == ['postPhase', 'applyLater', 'owner']
+    }
 }
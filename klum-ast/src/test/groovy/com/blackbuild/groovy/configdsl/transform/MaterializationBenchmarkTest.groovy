@@ -0,0 +1,225 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.ast
+
+import com.blackbuild.klum.ast.runtime.KlumBuilder
+import com.blackbuild.klum.ast.runtime.KlumModelInterning
+import com.blackbuild.klum.ast.runtime.generated.GeneratedMaterializationToken
+import com.blackbuild.klum.ast.runtime.generated.GeneratedModelSupport
+import spock.lang.IgnoreIf
+import spock.lang.Tag
+
+import java.lang.reflect.Constructor
+
+/**
+ * Measures the per-object cost of model allocation and the heap used by completed models. Run with {@code -Dklum.benchmark=true}.
+ */
+@Tag("benchmark")
+@IgnoreIf(value = { !Boolean.getBoolean('klum.benchmark') }, reason = "Benchmarks only run with -Dklum.benchmark=true")
+class MaterializationBenchmarkTest extends AbstractDSLSpec {
+
+    static final int OBJECTS = 100_000
+    static final int ROUNDS = 5
+    static final int SERVICES = 20_000
+    static final int ELEMENTS = 1_000_000
+    static final int ITEMS = ELEMENTS.intdiv(4) // one tag, two roles and one label each
+
+    def "allocation through the cached constructor handle vs. reflective constructor lookup"() {
+        given:
+        createClass '''
+            package pk
+
+            @DSL
+            class Root {
+                List<Node> nodes
+            }
+
+            @DSL
+            class Node {
+                String name
+                int weight
+            }
+        '''
+
+        when: 'a graph with 100k objects is materialized'
+        KlumBuilder builder = null
+        long graphStart = System.nanoTime()
+        instance = clazz.Create.With {
+            nodes {
+                node(name: 'node0', weight: 0) { builder = (KlumBuilder) delegate }
+                (1..<OBJECTS).each { index -> node(name: "node$index", weight: index) }
+            }
+        }
+        long graphNanos = System.nanoTime() - graphStart
+
+        and: 'the first Builder allocates its model again through both paths'
+        Class implementationType = instance.nodes[0].getClass()
+        def token = GeneratedModelSupport.getDeclaredField('MATERIALIZATION_TOKEN').tap { accessible = true }.get(null)
+        long reflective = Long.MAX_VALUE
+        long cached = Long.MAX_VALUE
+        ROUNDS.times {
+            reflective = Math.min(reflective, measure { reflectiveInstantiate(builder, implementationType, token) })
+            cached = Math.min(cached, measure { GeneratedModelSupport.$klum$instantiate(builder, implementationType) })
+        }
+
+        then:
+        instance.nodes.size() == OBJECTS
+        println String.format("materialized graph: %.1f ns/object", graphNanos / (double) OBJECTS)
+        println String.format("reflective constructor lookup: %.1f ns/object", reflective / (double) OBJECTS)
+        println String.format("cached constructor handle: %.1f ns/object", cached / (double) OBJECTS)
+    }
+
+    def "heap used by a template-heavy model with and without interning"() {
+        given:
+        createClass '''
+            package pk
+
+            @DSL
+            class Root {
+                List<Service> services
+            }
+
+            @DSL
+            class Service {
+                String name
+                Limits limits
+                Map<String, Label> labels
+                List<String> zones
+                Map<String, String> annotations
+            }
+
+            @DSL
+            class Limits {
+                int cpu
+                int memory
+            }
+
+            @DSL
+            class Label {
+                @Key String key
+                String value
+            }
+        '''
+
+        when:
+        long plain = retainedBytes { templateHeavyModel() }
+        KlumModelInterning.enabled = true
+        long interned = retainedBytes { templateHeavyModel() }
+
+        then:
+        println String.format("without interning: %.1f bytes/service", plain / (double) SERVICES)
+        println String.format("with interning: %.1f bytes/service", interned / (double) SERVICES)
+
+        cleanup:
+        KlumModelInterning.enabled = false
+    }
+
+    def "heap used by collection fields of a model with 1M collection members"() {
+        given:
+        createClass '''
+            package pk
+
+            @DSL
+            class Root {
+                List<Item> items
+            }
+
+            @DSL
+            class Item {
+                List<String> tags
+                Set<String> roles
+                Map<String, String> labels
+            }
+        '''
+
+        when:
+        long compact = retainedBytes {
+            clazz.Create.With {
+                items {
+                    ITEMS.times { index ->
+                        item(tags: ["t$index".toString()], roles: ['a', 'b'] as Set, labels: [tier: 'backend'])
+                    }
+                }
+            }
+        }
+        long wrapped = retainedBytes {
+            List collections = new ArrayList(ITEMS * 3)
+            ITEMS.times { index ->
+                collections << Collections.unmodifiableList(new ArrayList(["t$index".toString()]))
+                collections << Collections.unmodifiableSet(new LinkedHashSet(['a', 'b']))
+                collections << Collections.unmodifiableMap(new LinkedHashMap([tier: 'backend']))
+            }
+            return collections
+        }
+
+        then:
+        println String.format("compact snapshots, whole model: %.1f bytes/member", compact / (double) ELEMENTS)
+        println String.format("copied and wrapped collections alone: %.1f bytes/member", wrapped / (double) ELEMENTS)
+    }
+
+    private Object templateHeavyModel() {
+        return clazz.Create.With {
+            services {
+                SERVICES.times { index ->
+                    service(name: "service$index") {
+                        limits(cpu: 2, memory: 512)
+                        zones 'eu-west-1a', 'eu-west-1b', 'eu-west-1c'
+                        annotations(owner: 'platform', tier: 'backend', scrape: 'true')
+                        labels {
+                            label('tier', value: 'backend')
+                            label('team', value: 'platform')
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static long retainedBytes(Closure<Object> creation) {
+        Runtime runtime = Runtime.runtime
+        System.gc()
+        long before = runtime.totalMemory() - runtime.freeMemory()
+        Object model = creation.call()
+        System.gc()
+        long after = runtime.totalMemory() - runtime.freeMemory()
+        assert model != null
+        return after - before
+    }
+
+    private static long measure(Closure allocation) {
+        long start = System.nanoTime()
+        for (int i = 0; i < OBJECTS; i++)
+            allocation.call()
+        return System.nanoTime() - start
+    }
+
+    // the allocation path before constructor handles were cached per implementation type
+    private static Object reflectiveInstantiate(Object builder, Class implementationType, Object token) {
+        Constructor constructor = implementationType.declaredConstructors.find {
+            it.parameterCount == 2 && it.parameterTypes[0].isInstance(builder) && it.parameterTypes[1] == GeneratedMaterializationToken
+        }
+        constructor.trySetAccessible()
+        return constructor.newInstance(builder, token)
+    }
+}
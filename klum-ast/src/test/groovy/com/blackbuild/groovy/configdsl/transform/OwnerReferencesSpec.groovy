@@ -1265,6 +1265,81 @@ class OwnerReferencesSpec extends AbstractDSLSpec {
         instance.monitoringUser.role == "monitoringUser"
     }
 
+    def "Role fields of collection and map members contain the index or key"() {
+        given:
+        createClass '''
+            package pk
+
+            @DSL
+            class Database {
+                List<DatabaseUser> users
+                Map<String, Schema> schemas
+            }
+
+            @DSL
+            class DatabaseUser {
+                @Owner Database database
+                @Role String role
+            }
+
+            @DSL
+            class Schema {
+                @Key String name
+                @Owner Database database
+                @Role String role
+            }
+        '''
+
+        when:
+        instance = clazz.Create.With {
+            users {
+                user()
+                user()
+                user()
+            }
+            schemas {
+                schema("main")
+                schema("audit-log")
+            }
+        }
+
+        then:
+        instance.users*.role == ["users[0]", "users[1]", "users[2]"]
+        instance.schemas.main.role == "schemas.main"
+        instance.schemas.'audit-log'.role == "schemas.'audit-log'"
+    }
+
+    def "Role fields of set members contain their position"() {
+        given:
+        createClass '''
+            package pk
+
+            @DSL
+            class Database {
+                Set<DatabaseUser> users
+            }
+
+            @DSL
+            class DatabaseUser {
+                String name
+                @Owner Database database
+                @Role String role
+            }
+        '''
+
+        when:
+        instance = clazz.Create.With {
+            users {
+                user(name: "admin")
+                user(name: "reader")
+                user(name: "writer")
+            }
+        }
+
+        then:
+        instance.users*.role as Set == ["users[0]", "users[1]", "users[2]"] as Set
+    }
+
     @Issue("86")
     def "Role fields ca be filtered by type"() {
         given:
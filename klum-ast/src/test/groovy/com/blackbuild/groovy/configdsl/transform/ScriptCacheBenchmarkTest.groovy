@@ -0,0 +1,142 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.ast
+
+import com.blackbuild.klum.ast.runtime.KlumScriptCache
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import spock.lang.IgnoreIf
+import spock.lang.Tag
+
+/**
+ * Measures the cost of compiling and running configuration scripts. Run with {@code -Dklum.benchmark=true}.
+ */
+@Tag("benchmark")
+@IgnoreIf(value = { !Boolean.getBoolean('klum.benchmark') }, reason = "Benchmarks only run with -Dklum.benchmark=true")
+class ScriptCacheBenchmarkTest extends AbstractDSLSpec {
+
+    static final int SCRIPTS = 400
+    static final int RUNS = 50
+
+    @Rule TemporaryFolder temp = new TemporaryFolder()
+
+    def "compiling vs. reusing cached vs. loading stored scripts"() {
+        given:
+        createClass '''
+            package pk
+
+            @DSL
+            class Foo {
+                String name
+                List<String> values
+            }
+        '''
+        List<String> texts = scripts("script")
+        List<String> warmup = scripts("warmup")
+        int maximumSize = KlumScriptCache.maximumSize
+        KlumScriptCache.maximumSize = 2 * SCRIPTS
+        2.times { measure(warmup) }
+
+        when:
+        long compiled = measure(texts)
+        long cached = measure(texts)
+        KlumScriptCache.invalidateAll()
+        KlumScriptCache.directory = temp.newFolder("scripts").toPath()
+        long storing = measure(texts)
+        KlumScriptCache.invalidateAll()
+        long stored = measure(texts)
+
+        then:
+        println String.format("compiled: %.1f us/script", compiled / 1000d / SCRIPTS)
+        println String.format("cached in memory: %.1f us/script", cached / 1000d / SCRIPTS)
+        println String.format("compiled and stored: %.1f us/script", storing / 1000d / SCRIPTS)
+        println String.format("loaded from directory: %.1f us/script", stored / 1000d / SCRIPTS)
+
+        cleanup:
+        KlumScriptCache.directory = null
+        KlumScriptCache.maximumSize = maximumSize
+        KlumScriptCache.invalidateAll()
+    }
+
+    def "dynamic vs. statically compiled scripts"() {
+        given:
+        createClass '''
+            package pk
+
+            @DSL
+            class Config {
+                List<Component> components
+            }
+
+            @DSL
+            class Component {
+                String name
+                int weight
+            }
+        '''
+        String text = '''
+            components {
+                for (int i = 0; i < 1000; i++) {
+                    String componentName = "component" + i
+                    component {
+                        name componentName
+                        weight i
+                    }
+                }
+            }
+        '''
+
+        when:
+        long dynamic = measureRuns(text)
+        KlumScriptCache.staticCompilation = true
+        long statically = measureRuns(text)
+
+        then:
+        println String.format("dynamic script: %.1f us/run", dynamic / 1000d / RUNS)
+        println String.format("statically compiled script: %.1f us/run", statically / 1000d / RUNS)
+
+        cleanup:
+        KlumScriptCache.staticCompilation = false
+    }
+
+    private long measureRuns(String text) {
+        RUNS.times { clazz.Create.From(text) }
+        long start = System.nanoTime()
+        RUNS.times { assert clazz.Create.From(text).components.size() == 1000 }
+        return System.nanoTime() - start
+    }
+
+    private static List<String> scripts(String prefix) {
+        return (0..<SCRIPTS).collect { index -> """
+            name "$prefix$index"
+            (0..<10).each { value "value\$it" }
+        """.toString() }
+    }
+
+    private long measure(List<String> texts) {
+        long start = System.nanoTime()
+        texts.each { assert clazz.Create.From(it).values.size() == 10 }
+        return System.nanoTime() - start
+    }
+}
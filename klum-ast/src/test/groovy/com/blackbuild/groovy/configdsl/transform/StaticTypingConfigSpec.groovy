@@ -23,6 +23,8 @@
  */
 package com.blackbuild.klum.ast
 
+import com.blackbuild.klum.ast.runtime.KlumModelException
+import com.blackbuild.klum.ast.runtime.KlumScriptCache
 import groovy.transform.TypeChecked
 import org.codehaus.groovy.control.customizers.ASTTransformationCustomizer
 
@@ -79,4 +81,49 @@ class StaticTypingConfigSpec extends AbstractDSLSpec {
         noExceptionThrown()
     }
 
+    def "configuration scripts can be compiled statically against the Builder interface"() {
+        given:
+        createClass('''
+            package pk
+
+            @DSL
+            class Config {
+                @Key String name
+                String value
+                List<Component> components
+            }
+            @DSL
+            class Component {
+                String name
+            }
+        ''')
+        KlumScriptCache.staticCompilation = true
+
+        when:
+        instance = clazz.Create.From("blub", '''
+            value "bla"
+            components {
+                ["a", "b"].each { String componentName -> component { name componentName } }
+            }
+        ''')
+
+        then:
+        instance.name == "blub"
+        instance.value == "bla"
+        instance.components*.name == ["a", "b"]
+
+        when:
+        clazz.Create.From("blub", '''
+            valeu "bla"
+        ''')
+
+        then:
+        KlumModelException e = thrown()
+        e.message.contains("does not compile statically")
+        e.message.contains("valeu")
+
+        cleanup:
+        KlumScriptCache.staticCompilation = false
+    }
+
 }
@@ -1537,7 +1537,7 @@ import org.codehaus.groovy.control.CompilePhase
         clazz.declaredMethods.find { Method method -> method.name == "hashCode"}
     }
 
-    def "hashcode is 0 for non keyed objects"() {
+    def "hashcode of non keyed objects is derived from their fields"() {
         given:
         createClass('''
             package pk
@@ -1545,15 +1545,59 @@ import org.codehaus.groovy.control.CompilePhase
             @DSL
             class Foo {
                 String name
-                String other
+                String description
+                Bar bar
+            }
+
+            @DSL
+            class Bar {
+                @Owner Foo owner
+                int value
             }
         ''')
 
         when:
-        instance = clazz.Create.With(name: 'bla', other: 'blub')
+        instance = clazz.Create.With(name: 'bla', description: 'blub') { bar(value: 1) }
+        def same = clazz.Create.With(name: 'bla', description: 'blub') { bar(value: 1) }
+        def differentChild = clazz.Create.With(name: 'bla', description: 'blub') { bar(value: 2) }
+
+        then:
+        instance == same
+        instance.hashCode() == same.hashCode()
+        instance.hashCode() != differentChild.hashCode()
+        instance.hashCode() != clazz.Create.With(name: 'bla', description: 'blob').hashCode()
+    }
+
+    def "non keyed objects can be stored in sets"() {
+        given:
+        createClass('''
+            package pk
+
+            @DSL
+            class Foo {
+                Set<Bar> bars
+            }
+
+            @DSL
+            class Bar {
+                @Owner Foo owner
+                String name
+            }
+        ''')
+
+        when:
+        instance = clazz.Create.With {
+            bars {
+                bar(name: 'a')
+                bar(name: 'b')
+                bar(name: 'a')
+            }
+        }
 
         then:
-        instance.hashCode() == 0
+        instance.bars*.name == ['a', 'b']
+        instance.bars.contains(instance.bars.find { it.name == 'b' })
+        new HashSet(instance.bars) == instance.bars
     }
 
     def "hashcode is only derived from key for keyed objects"() {
@@ -1646,6 +1690,53 @@ import org.codehaus.groovy.control.CompilePhase
     }
 
 
+    def "equals rejects objects with different structural hashes before comparing fields"() {
+        given:
+        createClass('''
+            package pk
+
+            @DSL
+            class Foo {
+                Value value
+                String name
+            }
+
+            class Value implements Serializable {
+                static int comparisons
+                String text
+
+                boolean equals(Object o) {
+                    comparisons++
+                    return o instanceof Value && o.text == text
+                }
+
+                int hashCode() {
+                    return text.hashCode()
+                }
+            }
+        ''')
+        def valueClass = getClass('pk.Value')
+
+        when:
+        def left = clazz.Create.With(name: "a", value: valueClass.newInstance(text: 'x'))
+        def right = clazz.Create.With(name: "a", value: valueClass.newInstance(text: 'x'))
+        def other = clazz.Create.With(name: "b", value: valueClass.newInstance(text: 'x'))
+        valueClass.comparisons = 0
+
+        then:
+        left != other
+        valueClass.comparisons == 0
+
+        and:
+        left == right
+        valueClass.comparisons == 1
+
+        and: "the guards of equals still come first"
+        left.equals(left)
+        !left.equals(null)
+        !left.equals("a")
+    }
+
     def "Bug: toString() with owner field throws StackOverflowError"() {
         given:
         createClass('''
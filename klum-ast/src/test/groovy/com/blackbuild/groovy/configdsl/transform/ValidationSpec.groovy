@@ -34,6 +34,9 @@ import org.codehaus.groovy.control.MultipleCompilationErrorsException
 import spock.lang.*
 import uk.org.webcompere.systemstubs.properties.SystemProperties
 
+import java.util.concurrent.Callable
+import java.util.concurrent.Executors
+
 class ValidationSpec extends AbstractDSLSpec {
 
     KlumValidationException error
@@ -1285,6 +1288,37 @@ class ValidationSpec extends AbstractDSLSpec {
         validationResults.maxLevel == Validate.Level.NONE
     }
 
+    def "shared validators keep issues of concurrently validated objects apart"() {
+        given:
+        createClass('''
+            @DSL
+            class Foo {
+                String name
+
+                @Validate(level = Validate.Level.WARNING)
+                void check() {
+                    assert name == null : name
+                }
+            }
+        ''')
+        def executor = Executors.newFixedThreadPool(8)
+
+        when:
+        def futures = (0..<200).collect { index ->
+            executor.submit({ clazz.Create.With { name "foo$index" } } as Callable)
+        }
+        def messages = futures.collect { getValidationResult(it.get()).issues*.message }
+
+        then:
+        messages.eachWithIndex { issueMessages, index ->
+            assert issueMessages.size() == 1
+            assert issueMessages[0].contains("foo$index.")
+        }
+
+        cleanup:
+        executor.shutdownNow()
+    }
+
     @Issue("145")
     def "warning and error issues"() {
         given: